@@ -0,0 +1,113 @@
+package net.covers1624.curl4j.util.internal;
+
+import net.covers1624.curl4j.CURL;
+import org.jetbrains.annotations.ApiStatus;
+
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+/**
+ * A {@link CurlDowncalls} using Foreign Function &amp; Memory downcall handles.
+ * <p>
+ * The handles are bound to the same function pointers resolved by {@link CURL.Functions},
+ * so both backends always talk to the same libcurl. Pointers are passed as {@code long},
+ * so this backend is only available on 64-bit platforms.
+ * <p>
+ * Created by covers1624 on 18/10/26.
+ */
+@ApiStatus.Internal
+public class ForeignCurlDowncalls implements CurlDowncalls {
+
+    private static final Linker LINKER = Linker.nativeLinker();
+
+    static {
+        if (ValueLayout.ADDRESS.byteSize() != 8) throw new UnsupportedOperationException("Only supported on 64-bit platforms.");
+    }
+
+    // These never block, or touch a curl_share, so can never call back into Java. They can skip the thread state transition.
+    // Scalar infos are only read from the handle, list infos such as CURLINFO_COOKIELIST may lock the share.
+    private static final MethodHandle CURL_EASY_GETINFO_SCALAR = downcall(CURL.Functions.curl_easy_getinfo, FunctionDescriptor.of(JAVA_INT, JAVA_LONG, JAVA_INT, JAVA_LONG), Linker.Option.firstVariadicArg(2), Linker.Option.critical(false));
+    private static final MethodHandle CURL_MULTI_INFO_READ = downcall(CURL.Functions.curl_multi_info_read, FunctionDescriptor.of(JAVA_LONG, JAVA_LONG, JAVA_LONG), Linker.Option.critical(false));
+    private static final MethodHandle CURL_MULTI_WAKEUP = downcall(CURL.Functions.curl_multi_wakeup, FunctionDescriptor.of(JAVA_INT, JAVA_LONG), Linker.Option.critical(false));
+
+    // These may lock a curl_share, which calls back into Java, and may block on the share's lock.
+    // E.g. CURLOPT_SHARE, and cookie options. They must do a full transition.
+    private static final MethodHandle CURL_EASY_SETOPT = downcall(CURL.Functions.curl_easy_setopt, FunctionDescriptor.of(JAVA_INT, JAVA_LONG, JAVA_INT, JAVA_LONG), Linker.Option.firstVariadicArg(2));
+    private static final MethodHandle CURL_MULTI_ADD_HANDLE = downcall(CURL.Functions.curl_multi_add_handle, FunctionDescriptor.of(JAVA_INT, JAVA_LONG, JAVA_LONG));
+    private static final MethodHandle CURL_EASY_GETINFO = downcall(CURL.Functions.curl_easy_getinfo, FunctionDescriptor.of(JAVA_INT, JAVA_LONG, JAVA_INT, JAVA_LONG), Linker.Option.firstVariadicArg(2));
+
+    // Blocks, must do a full transition so we don't stall safepoints.
+    private static final MethodHandle CURL_MULTI_POLL = downcall(CURL.Functions.curl_multi_poll, FunctionDescriptor.of(JAVA_INT, JAVA_LONG, JAVA_LONG, JAVA_INT, JAVA_INT, JAVA_LONG));
+
+    @Override
+    public int curl_easy_setopt(long curl, int opt, long value) {
+        try {
+            return (int) CURL_EASY_SETOPT.invokeExact(curl, opt, value);
+        } catch (Throwable ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    @Override
+    public int curl_easy_getinfo(long curl, int info, long value) {
+        try {
+            if (isScalarInfo(info)) {
+                return (int) CURL_EASY_GETINFO_SCALAR.invokeExact(curl, info, value);
+            }
+            return (int) CURL_EASY_GETINFO.invokeExact(curl, info, value);
+        } catch (Throwable ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    @Override
+    public int curl_multi_add_handle(long multi, long curl) {
+        try {
+            return (int) CURL_MULTI_ADD_HANDLE.invokeExact(multi, curl);
+        } catch (Throwable ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    @Override
+    public long curl_multi_info_read(long multi, long msgsInQueue) {
+        try {
+            return (long) CURL_MULTI_INFO_READ.invokeExact(multi, msgsInQueue);
+        } catch (Throwable ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    @Override
+    public int curl_multi_poll(long multi, long extraFds, int extraNfds, int timeoutMs, long numFds) {
+        try {
+            return (int) CURL_MULTI_POLL.invokeExact(multi, extraFds, extraNfds, timeoutMs, numFds);
+        } catch (Throwable ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    @Override
+    public int curl_multi_wakeup(long multi) {
+        try {
+            return (int) CURL_MULTI_WAKEUP.invokeExact(multi);
+        } catch (Throwable ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    private static boolean isScalarInfo(int info) {
+        int type = info & CURL.CURLINFO_TYPEMASK;
+        return type == CURL.CURLINFO_LONG || type == CURL.CURLINFO_DOUBLE || type == CURL.CURLINFO_OFF_T;
+    }
+
+    private static MethodHandle downcall(long func, FunctionDescriptor descriptor, Linker.Option... options) {
+        return LINKER.downcallHandle(MemorySegment.ofAddress(func), descriptor, options);
+    }
+}
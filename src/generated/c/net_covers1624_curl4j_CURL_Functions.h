@@ -87,6 +87,14 @@ JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1eas
 JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1easy_1setopt__JJILjava_lang_String_2
   (JNIEnv *, jclass, jlong, jlong, jint, jstring);
 
+/*
+ * Class:     net_covers1624_curl4j_CURL_Functions
+ * Method:    ncurl_easy_setopt_batch
+ * Signature: (JJJIJ)I
+ */
+JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1easy_1setopt_1batch
+  (JNIEnv *, jclass, jlong, jlong, jlong, jint, jlong);
+
 /*
  * Class:     net_covers1624_curl4j_CURL_Functions
  * Method:    ncurl_easy_getinfo
@@ -95,6 +103,14 @@ JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1eas
 JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1easy_1getinfo
   (JNIEnv *, jclass, jlong, jlong, jint, jlong);
 
+/*
+ * Class:     net_covers1624_curl4j_CURL_Functions
+ * Method:    ncurl_easy_getinfo_batch
+ * Signature: (JJJIJ)I
+ */
+JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1easy_1getinfo_1batch
+  (JNIEnv *, jclass, jlong, jlong, jlong, jint, jlong);
+
 /*
  * Class:     net_covers1624_curl4j_CURL_Functions
  * Method:    ncurl_easy_strerror
@@ -119,6 +135,22 @@ JNIEXPORT void JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1eas
 JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1easy_1impersonate
   (JNIEnv *, jclass, jlong, jlong, jstring, jboolean);
 
+/*
+ * Class:     net_covers1624_curl4j_CURL_Functions
+ * Method:    ncurl_easy_header
+ * Signature: (JJLjava/lang/String;JIIJ)I
+ */
+JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1easy_1header
+  (JNIEnv *, jclass, jlong, jlong, jstring, jlong, jint, jint, jlong);
+
+/*
+ * Class:     net_covers1624_curl4j_CURL_Functions
+ * Method:    ncurl_easy_nextheader
+ * Signature: (JJIIJ)J
+ */
+JNIEXPORT jlong JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1easy_1nextheader
+  (JNIEnv *, jclass, jlong, jlong, jint, jint, jlong);
+
 /*
  * Class:     net_covers1624_curl4j_CURL_Functions
  * Method:    ncurl_slist_append
@@ -255,6 +287,30 @@ JNIEXPORT jlong JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1mu
 JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1multi_1timeout
   (JNIEnv *, jclass, jlong, jlong, jlong);
 
+/*
+ * Class:     net_covers1624_curl4j_CURL_Functions
+ * Method:    ncurl_multi_poll
+ * Signature: (JJJIIJ)I
+ */
+JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1multi_1poll
+  (JNIEnv *, jclass, jlong, jlong, jlong, jint, jint, jlong);
+
+/*
+ * Class:     net_covers1624_curl4j_CURL_Functions
+ * Method:    ncurl_multi_wait
+ * Signature: (JJJIIJ)I
+ */
+JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1multi_1wait
+  (JNIEnv *, jclass, jlong, jlong, jlong, jint, jint, jlong);
+
+/*
+ * Class:     net_covers1624_curl4j_CURL_Functions
+ * Method:    ncurl_multi_wakeup
+ * Signature: (JJ)I
+ */
+JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1multi_1wakeup
+  (JNIEnv *, jclass, jlong, jlong);
+
 /*
  * Class:     net_covers1624_curl4j_CURL_Functions
  * Method:    ncurl_multi_setopt
@@ -271,6 +327,38 @@ JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1mul
 JNIEXPORT jstring JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1multi_1strerror
   (JNIEnv *, jclass, jlong, jint);
 
+/*
+ * Class:     net_covers1624_curl4j_CURL_Functions
+ * Method:    ncurl_share_init
+ * Signature: (J)J
+ */
+JNIEXPORT jlong JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1share_1init
+  (JNIEnv *, jclass, jlong);
+
+/*
+ * Class:     net_covers1624_curl4j_CURL_Functions
+ * Method:    ncurl_share_setopt
+ * Signature: (JJIJ)I
+ */
+JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1share_1setopt
+  (JNIEnv *, jclass, jlong, jlong, jint, jlong);
+
+/*
+ * Class:     net_covers1624_curl4j_CURL_Functions
+ * Method:    ncurl_share_cleanup
+ * Signature: (JJ)I
+ */
+JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1share_1cleanup
+  (JNIEnv *, jclass, jlong, jlong);
+
+/*
+ * Class:     net_covers1624_curl4j_CURL_Functions
+ * Method:    ncurl_share_strerror
+ * Signature: (JI)Ljava/lang/String;
+ */
+JNIEXPORT jstring JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1share_1strerror
+  (JNIEnv *, jclass, jlong, jint);
+
 #ifdef __cplusplus
 }
 #endif
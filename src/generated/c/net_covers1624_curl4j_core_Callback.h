@@ -7,6 +7,14 @@
 #ifdef __cplusplus
 extern "C" {
 #endif
+/*
+ * Class:     net_covers1624_curl4j_core_Callback
+ * Method:    ffi_type_void
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL Java_net_covers1624_curl4j_core_Callback_ffi_1type_1void
+  (JNIEnv *, jclass);
+
 /*
  * Class:     net_covers1624_curl4j_core_Callback
  * Method:    ffi_type_pointer
@@ -87,6 +95,22 @@ JNIEXPORT void JNICALL Java_net_covers1624_curl4j_core_Callback_ffi_1closure_1fr
 JNIEXPORT jlong JNICALL Java_net_covers1624_curl4j_core_Callback_ffi_1callback
   (JNIEnv *, jclass, jobject);
 
+/*
+ * Class:     net_covers1624_curl4j_core_Callback
+ * Method:    ffi_callback_data
+ * Signature: (Ljava/lang/reflect/Method;)J
+ */
+JNIEXPORT jlong JNICALL Java_net_covers1624_curl4j_core_Callback_ffi_1callback_1data
+  (JNIEnv *, jclass, jobject);
+
+/*
+ * Class:     net_covers1624_curl4j_core_Callback
+ * Method:    ffi_callback_progress
+ * Signature: (Ljava/lang/reflect/Method;)J
+ */
+JNIEXPORT jlong JNICALL Java_net_covers1624_curl4j_core_Callback_ffi_1callback_1progress
+  (JNIEnv *, jclass, jobject);
+
 #ifdef __cplusplus
 }
 #endif
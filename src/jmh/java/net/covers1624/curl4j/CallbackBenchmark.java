@@ -0,0 +1,70 @@
+package net.covers1624.curl4j;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static net.covers1624.curl4j.CURL.*;
+
+/**
+ * Measures the cost of an upcall from native land into a {@link CurlWriteCallbackI},
+ * through libffi, JNI and our native trampoline.
+ * <p>
+ * libcurl drives the callback by reading a local {@code file://} URL. The same file is read
+ * with a small and a large {@link CURL#CURLOPT_BUFFERSIZE}, the difference between the two
+ * is dominated by the number of upcalls made.
+ * <p>
+ * Created by covers1624 on 18/10/26.
+ */
+@State (Scope.Thread)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+public class CallbackBenchmark {
+
+    private static final int FILE_SIZE = 1024 * 1024;
+
+    // 1024 upcalls per transfer vs 2.
+    @Param ({ "1024", "524288" })
+    public int bufferSize;
+
+    private Path file;
+    private long curl;
+    private CurlWriteCallback callback;
+
+    @Setup
+    public void setup() throws IOException {
+        byte[] data = new byte[FILE_SIZE];
+        new Random(0).nextBytes(data);
+        file = Files.createTempFile("curl4j-jmh", ".bin");
+        Files.write(file, data);
+
+        curl_global_init(CURL_GLOBAL_DEFAULT);
+        curl = curl_easy_init();
+        callback = new CurlWriteCallback((ptr, size, nmemb, userdata) -> size * nmemb);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        callback.close();
+        curl_easy_cleanup(curl);
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int transfer() {
+        curl_easy_reset(curl);
+        curl_easy_setopt(curl, CURLOPT_URL, file.toUri().toString());
+        curl_easy_setopt(curl, CURLOPT_BUFFERSIZE, bufferSize);
+        curl_easy_setopt(curl, CURLOPT_WRITEFUNCTION, callback);
+        int result = curl_easy_perform(curl);
+        if (result != CURLE_OK) throw new IllegalStateException("Curl returned error: " + curl_easy_strerror(result));
+        return result;
+    }
+}
@@ -0,0 +1,64 @@
+package net.covers1624.curl4j.core;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmarks for the {@link Memory} helpers used on every native call.
+ * <p>
+ * Created by covers1624 on 18/10/26.
+ */
+@State (Scope.Thread)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.NANOSECONDS)
+@Warmup (iterations = 3, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (1)
+public class MemoryBenchmark {
+
+    @Param ({ "16", "256", "4096" })
+    public int strLen;
+
+    // Hold buffer, so the string memory stays alive.
+    private ByteBuffer strBuffer;
+    private long strAddress;
+
+    @Setup
+    public void setup() {
+        byte[] bytes = new byte[strLen];
+        for (int i = 0; i < strLen; i++) {
+            bytes[i] = (byte) ('a' + i % 26);
+        }
+        strBuffer = ByteBuffer.allocateDirect(strLen + 1);
+        strBuffer.put(bytes).put((byte) 0).flip();
+        strAddress = Memory.getDirectByteBufferAddress(strBuffer);
+    }
+
+    @Benchmark
+    public long stackPushMallocPop() {
+        try (Memory.Stack stack = Memory.pushStack()) {
+            return stack.nmalloc(NativeTypes.POINTER_SIZE);
+        }
+    }
+
+    @Benchmark
+    public String readUtf8() {
+        return Memory.readUtf8(strAddress);
+    }
+
+    @Benchmark
+    public String readUtf8Length() {
+        return Memory.readUtf8(strAddress, strLen);
+    }
+
+    // Baseline for readUtf8, the same decode from a Java array.
+    @Benchmark
+    public String decodeBaseline() {
+        byte[] bytes = new byte[strLen];
+        strBuffer.get(bytes).rewind();
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
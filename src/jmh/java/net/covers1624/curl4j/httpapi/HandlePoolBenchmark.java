@@ -0,0 +1,49 @@
+package net.covers1624.curl4j.httpapi;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link HandlePool#get()} and {@link HandlePool#finished} round trips.
+ * <p>
+ * The pooled values are plain objects, so we only measure the pool itself.
+ * Run with {@code -t} to change the amount of contention.
+ * <p>
+ * Created by covers1624 on 18/10/26.
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 3, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (1)
+@Threads (4)
+public class HandlePoolBenchmark {
+
+    private HandlePool<AutoCloseable> pool;
+
+    @Setup
+    public void setup() {
+        pool = new HandlePool<>(() -> () -> { });
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public Object getFinished() {
+        HandlePool<AutoCloseable>.Entry entry = pool.get();
+        pool.finished(entry);
+        return entry;
+    }
+
+    @Benchmark
+    public Object getFinishedKeyed() {
+        HandlePool<AutoCloseable>.Entry entry = pool.get("http://127.0.0.1:80");
+        pool.finished(entry);
+        return entry;
+    }
+}
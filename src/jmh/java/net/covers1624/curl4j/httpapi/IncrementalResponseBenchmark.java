@@ -0,0 +1,86 @@
+package net.covers1624.curl4j.httpapi;
+
+import fi.iki.elonen.NanoHTTPD.Response;
+import net.covers1624.curl4j.tests.TestBase;
+import net.covers1624.curl4j.tests.TestWebServer;
+import net.covers1624.quack.net.httpapi.EngineResponse;
+import net.covers1624.quack.net.httpapi.WebBody;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end throughput of {@link IncrementalCurl4jResponse} against a local {@link TestWebServer}.
+ * <p>
+ * The body is drained through its channel into a direct buffer, the same way a consumer
+ * copying into a file or socket would.
+ * <p>
+ * Created by covers1624 on 18/10/26.
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.SECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+public class IncrementalResponseBenchmark extends TestBase {
+
+    @Param ({ "1024", "1048576" })
+    public int bodySize;
+
+    @Param ({ "0", "1" })
+    public int reactorThreads;
+
+    private TestWebServer server;
+    private Curl4jHttpEngine engine;
+    private String url;
+
+    @Setup
+    public void setup() throws IOException {
+        byte[] data = randomBytes(bodySize);
+        server = new TestWebServer();
+        server.addHandler("/", r -> bytesResponse(Response.Status.OK, data));
+        url = server.addr("/");
+        engine = Curl4jHttpEngine.builder()
+                .reactorThreads(reactorThreads)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.close();
+        server.close();
+    }
+
+    @State (Scope.Thread)
+    public static class ReadBuffer {
+
+        public final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    }
+
+    @Benchmark
+    public long download(ReadBuffer readBuffer) throws IOException {
+        long total = 0;
+        try (EngineResponse response = engine.newRequest()
+                .method("GET", null)
+                .url(url)
+                .execute()) {
+            WebBody body = response.body();
+            if (body == null) throw new IllegalStateException("Expected body.");
+
+            ByteBuffer buffer = readBuffer.buffer;
+            try (ReadableByteChannel channel = body.openChannel()) {
+                int len;
+                while ((len = channel.read(buffer)) != -1) {
+                    total += len;
+                    buffer.clear();
+                }
+            }
+        }
+        if (total != bodySize) throw new IllegalStateException("Expected " + bodySize + " bytes, got " + total);
+        return total;
+    }
+}
@@ -0,0 +1,42 @@
+package net.covers1624.curl4j.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building and freeing the {@link net.covers1624.curl4j.curl_slist} for a request's headers.
+ * <p>
+ * Created by covers1624 on 18/10/26.
+ */
+@State (Scope.Thread)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.NANOSECONDS)
+@Warmup (iterations = 3, time = 1)
+@Measurement (iterations = 5, time = 1)
+@Fork (1)
+public class SListHeaderWrapperBenchmark {
+
+    @Param ({ "0", "4", "16" })
+    public int headerCount;
+
+    private List<String> headers;
+
+    @Setup
+    public void setup() {
+        headers = new ArrayList<>(headerCount);
+        for (int i = 0; i < headerCount; i++) {
+            headers.add("X-Header-" + i + ": value-" + i);
+        }
+    }
+
+    @Benchmark
+    public Object construct() {
+        // The slist is built lazily, force it so we measure the native side too.
+        try (SListHeaderWrapper wrapper = new SListHeaderWrapper(headers)) {
+            return wrapper.get();
+        }
+    }
+}
@@ -1,4 +1,5 @@
 #include "stdint.h"
+#include "string.h"
 #include "net_covers1624_curl4j_CURL_Functions.h"
 
 JNIEXPORT jstring JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1version(JNIEnv *env, jclass clazz, jlong func) {
@@ -44,10 +45,76 @@ JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1eas
     return ret;
 }
 
+// Must match CurlOptionBatch.
+struct curl4j_option {
+    int32_t option;
+    int32_t type;
+    int64_t value;
+};
+
+JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1easy_1setopt_1batch(JNIEnv *env, jclass clazz, jlong func, jlong curl, jlong options, jint count, jlong strings) {
+    struct curl4j_option *opts = (struct curl4j_option *) (uintptr_t) options;
+    int result = 0;
+    for (int i = 0; i < count; i++) {
+        int ret;
+        if (opts[i].type == 1) {
+            ret = ((int (*)(uintptr_t, int, ...)) (uintptr_t) func)((uintptr_t) curl, opts[i].option, (const char *) (uintptr_t) (strings + opts[i].value));
+        } else if (opts[i].option >= 30000 && opts[i].option < 40000) {
+            // CURLOPTTYPE_OFF_T, always 64 bits.
+            ret = ((int (*)(uintptr_t, int, ...)) (uintptr_t) func)((uintptr_t) curl, opts[i].option, (int64_t) opts[i].value);
+        } else {
+            ret = ((int (*)(uintptr_t, int, ...)) (uintptr_t) func)((uintptr_t) curl, opts[i].option, (uintptr_t) opts[i].value);
+        }
+        if (ret != 0 && result == 0) {
+            result = ret;
+        }
+    }
+    return result;
+}
+
 JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1easy_1getinfo(JNIEnv *env, jclass clazz, jlong func, jlong curl, jint info, jlong value) {
     return ((int (*)(uintptr_t, int, uintptr_t)) (uintptr_t) func)((uintptr_t) curl, info, (uintptr_t) value);
 }
 
+JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1easy_1getinfo_1batch(JNIEnv *env, jclass clazz, jlong func, jlong curl, jlong infos, jint count, jlong values) {
+    int32_t *info = (int32_t *) (uintptr_t) infos;
+    int64_t *out = (int64_t *) (uintptr_t) values;
+    int result = 0;
+    for (int i = 0; i < count; i++) {
+        int ret;
+        switch (info[i] & 0xf00000) {
+            case 0x200000: { // CURLINFO_LONG
+                long value = -1;
+                ret = ((int (*)(uintptr_t, int, ...)) (uintptr_t) func)((uintptr_t) curl, info[i], &value);
+                out[i] = ret == 0 ? (int64_t) value : -1;
+                break;
+            }
+            case 0x300000: { // CURLINFO_DOUBLE, returned as raw bits.
+                double value = -1;
+                ret = ((int (*)(uintptr_t, int, ...)) (uintptr_t) func)((uintptr_t) curl, info[i], &value);
+                memcpy(&out[i], &value, sizeof(double));
+                break;
+            }
+            case 0x600000: { // CURLINFO_OFF_T, always 64 bits.
+                int64_t value = -1;
+                ret = ((int (*)(uintptr_t, int, ...)) (uintptr_t) func)((uintptr_t) curl, info[i], &value);
+                out[i] = ret == 0 ? value : -1;
+                break;
+            }
+            default: { // Pointers, strings and sockets.
+                uintptr_t value = 0;
+                ret = ((int (*)(uintptr_t, int, ...)) (uintptr_t) func)((uintptr_t) curl, info[i], &value);
+                out[i] = ret == 0 ? (int64_t) value : 0;
+                break;
+            }
+        }
+        if (ret != 0 && result == 0) {
+            result = ret;
+        }
+    }
+    return result;
+}
+
 JNIEXPORT jstring JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1easy_1strerror(JNIEnv *env, jclass clazz, jlong func, jint code) {
     return (*env)->NewStringUTF(env, ((const char *(*)(int)) (uintptr_t) func)(code));
 }
@@ -63,6 +130,17 @@ JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1eas
     return ret;
 }
 
+JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1easy_1header(JNIEnv *env, jclass clazz, jlong func, jlong curl, jstring name, jlong index, jint origin, jint request, jlong hout) {
+    const char *nameStr = (*env)->GetStringUTFChars(env, name, NULL);
+    int ret = ((int (*)(uintptr_t, const char *, size_t, unsigned int, int, uintptr_t)) (uintptr_t) func)((uintptr_t) curl, nameStr, (size_t) index, (unsigned int) origin, request, (uintptr_t) hout);
+    (*env)->ReleaseStringUTFChars(env, name, nameStr);
+    return ret;
+}
+
+JNIEXPORT jlong JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1easy_1nextheader(JNIEnv *env, jclass clazz, jlong func, jlong curl, jint origin, jint request, jlong prev) {
+    return (jlong) ((uintptr_t (*)(uintptr_t, unsigned int, int, uintptr_t)) (uintptr_t) func)((uintptr_t) curl, (unsigned int) origin, request, (uintptr_t) prev);
+}
+
 JNIEXPORT jlong JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1slist_1append(JNIEnv *env, jclass clazz, jlong func, jlong list, jstring string) {
     const char *str = (*env)->GetStringUTFChars(env, string, NULL);
     uintptr_t ret = ((uintptr_t(*)(uintptr_t, const char *)) (uintptr_t) func)((uintptr_t) list, str);
@@ -147,10 +225,38 @@ JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1mul
     return (jint) ((int (*)(uintptr_t, uintptr_t)) (uintptr_t) func)((uintptr_t) multi, (uintptr_t) milliseconds);
 }
 
+JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1multi_1poll(JNIEnv *env, jclass clazz, jlong func, jlong multi, jlong extraFds, jint extraNfds, jint timeoutMs, jlong numFds) {
+    return (jint) ((int (*)(uintptr_t, uintptr_t, unsigned int, int, uintptr_t)) (uintptr_t) func)((uintptr_t) multi, (uintptr_t) extraFds, (unsigned int) extraNfds, timeoutMs, (uintptr_t) numFds);
+}
+
+JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1multi_1wait(JNIEnv *env, jclass clazz, jlong func, jlong multi, jlong extraFds, jint extraNfds, jint timeoutMs, jlong numFds) {
+    return (jint) ((int (*)(uintptr_t, uintptr_t, unsigned int, int, uintptr_t)) (uintptr_t) func)((uintptr_t) multi, (uintptr_t) extraFds, (unsigned int) extraNfds, timeoutMs, (uintptr_t) numFds);
+}
+
+JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1multi_1wakeup(JNIEnv *env, jclass clazz, jlong func, jlong multi) {
+    return (jint) ((int (*)(uintptr_t)) (uintptr_t) func)((uintptr_t) multi);
+}
+
 JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1multi_1setopt(JNIEnv *env, jclass clazz, jlong func, jlong multi, jint opt, jlong value) {
     return ((int (*)(uintptr_t, int, ...)) (uintptr_t) func)((uintptr_t) multi, opt, (uintptr_t) value);
 }
 
 JNIEXPORT jstring JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1multi_1strerror(JNIEnv *env, jclass clazz, jlong func, jint code) {
     return (*env)->NewStringUTF(env, ((const char *(*)(int)) (uintptr_t) func)(code));
+}
+
+JNIEXPORT jlong JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1share_1init(JNIEnv *env, jclass clazz, jlong func) {
+    return (jlong) ((uintptr_t(*)(void)) (uintptr_t) func)();
+}
+
+JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1share_1setopt(JNIEnv *env, jclass clazz, jlong func, jlong share, jint opt, jlong value) {
+    return ((int (*)(uintptr_t, int, ...)) (uintptr_t) func)((uintptr_t) share, opt, (uintptr_t) value);
+}
+
+JNIEXPORT jint JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1share_1cleanup(JNIEnv *env, jclass clazz, jlong func, jlong share) {
+    return (jint) ((int (*)(uintptr_t)) (uintptr_t) func)((uintptr_t) share);
+}
+
+JNIEXPORT jstring JNICALL Java_net_covers1624_curl4j_CURL_00024Functions_ncurl_1share_1strerror(JNIEnv *env, jclass clazz, jlong func, jint code) {
+    return (*env)->NewStringUTF(env, ((const char *(*)(int)) (uintptr_t) func)(code));
 }
\ No newline at end of file
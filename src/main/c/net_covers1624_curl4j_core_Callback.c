@@ -1,10 +1,15 @@
 #include "net_covers1624_curl4j_core_Callback.h"
 #include "stdlib.h"
+#include "stdint.h"
 #include "ffi.h"
 #include "utils.h"
 
 static jmethodID callbackMethod;
 
+JNIEXPORT jlong JNICALL Java_net_covers1624_curl4j_core_Callback_ffi_1type_1void(JNIEnv *env, jclass clazz) {
+    return (jlong) &ffi_type_void;
+}
+
 JNIEXPORT jlong JNICALL Java_net_covers1624_curl4j_core_Callback_ffi_1type_1pointer(JNIEnv *env, jclass clazz) {
     return (jlong) &ffi_type_pointer;
 }
@@ -53,3 +58,42 @@ JNIEXPORT jlong JNICALL Java_net_covers1624_curl4j_core_Callback_ffi_1callback(J
     callbackMethod = (*env)->FromReflectedMethod(env, method);
     return (jlong) &ffi_callback;
 }
+
+static jmethodID dataCallbackMethod;
+static jmethodID progressCallbackMethod;
+
+// size_t (void *, size_t, size_t, void *), used by curl's write, read and header callbacks.
+static void ffi_callback_data(ffi_cif *cif, void *ret, void **args, void *user_data) {
+    JNIEnv *env = getEnv();
+    jlong r = (*env)->CallLongMethod(env, user_data, dataCallbackMethod,
+                                     (jlong) *(void **) args[0], (jlong) *(size_t *) args[1],
+                                     (jlong) *(size_t *) args[2], (jlong) *(void **) args[3]);
+    if ((*env)->ExceptionCheck(env)) {
+        // Exception is being rethrown. CURL_READFUNC_ABORT, never a valid byte count for write or header callbacks either.
+        r = 0x10000000;
+    }
+    *(size_t *) ret = (size_t) r;
+}
+
+// int (void *, int64_t, int64_t, int64_t, int64_t), used by curl's xferinfo callback.
+static void ffi_callback_progress(ffi_cif *cif, void *ret, void **args, void *user_data) {
+    JNIEnv *env = getEnv();
+    jint r = (*env)->CallIntMethod(env, user_data, progressCallbackMethod,
+                                   (jlong) *(void **) args[0], *(int64_t *) args[1], *(int64_t *) args[2],
+                                   *(int64_t *) args[3], *(int64_t *) args[4]);
+    if ((*env)->ExceptionCheck(env)) {
+        // Exception is being rethrown, abort the transfer.
+        r = 1;
+    }
+    *(ffi_arg *) ret = (ffi_arg) r;
+}
+
+JNIEXPORT jlong JNICALL Java_net_covers1624_curl4j_core_Callback_ffi_1callback_1data(JNIEnv *env, jclass clazz, jobject method) {
+    dataCallbackMethod = (*env)->FromReflectedMethod(env, method);
+    return (jlong) &ffi_callback_data;
+}
+
+JNIEXPORT jlong JNICALL Java_net_covers1624_curl4j_core_Callback_ffi_1callback_1progress(JNIEnv *env, jclass clazz, jobject method) {
+    progressCallbackMethod = (*env)->FromReflectedMethod(env, method);
+    return (jlong) &ffi_callback_progress;
+}
@@ -1,15 +1,20 @@
 package net.covers1624.curl4j;
 
+import net.covers1624.curl4j.core.Memory;
 import net.covers1624.curl4j.core.Pointer;
 import net.covers1624.curl4j.util.CurlBindable;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import static net.covers1624.curl4j.CURL.*;
 
@@ -25,6 +30,7 @@ import static net.covers1624.curl4j.CURL.*;
  * You may choose to override the default CABundle via {@link #setDefault} this will cause all calls to {@link #getDefault} to
  * use the new default. By default, the built-in bundle is used. This may always be obtained via {@link #builtIn}.
  * <p>
+ * Bundles created from a resource or path are loaded lazily, the first time they are used.
  *
  * @author covers1624
  */
@@ -42,13 +48,23 @@ public final class CABundle implements CurlBindable {
         DEFAULT = BUILT_IN;
     }
 
-    private final curl_blob blob;
+    // Where the bundle is loaded from, if it was not given directly.
+    private final @Nullable String resource;
+    private final @Nullable Path path;
+
+    private volatile @Nullable curl_blob blob;
+    private volatile @Nullable Path file;
 
     public CABundle(byte[] data) {
-        blob = new curl_blob();
-        blob.setFlags(curl_blob.CURL_BLOB_NOCOPY);
-        blob.setData(toNativeBuffer(data));
-        blob.setLen((long) data.length);
+        resource = null;
+        path = null;
+        blob = newBlob(toNativeBuffer(data));
+    }
+
+    private CABundle(@Nullable String resource, @Nullable Path path) {
+        this.resource = resource;
+        this.path = path;
+        file = path;
     }
 
     /**
@@ -85,11 +101,9 @@ public final class CABundle implements CurlBindable {
      * @return The CABundle.
      */
     public static CABundle newBundleFromResource(String resource) throws IOException {
-        try (InputStream is = CABundle.class.getResourceAsStream(resource)) {
-            if (is == null) throw new FileNotFoundException("Embedded resource does not exist: " + resource);
+        if (CABundle.class.getResource(resource) == null) throw new FileNotFoundException("Embedded resource does not exist: " + resource);
 
-            return new CABundle(toBytes(is));
-        }
+        return new CABundle(resource, null);
     }
 
     /**
@@ -99,7 +113,9 @@ public final class CABundle implements CurlBindable {
      * @return THe CABundle.
      */
     public static CABundle newBundleFromPath(Path path) throws IOException {
-        return new CABundle(Files.readAllBytes(path));
+        if (!Files.isRegularFile(path)) throw new NoSuchFileException(path.toString());
+
+        return new CABundle(null, path.toAbsolutePath());
     }
 
     /**
@@ -121,6 +137,81 @@ public final class CABundle implements CurlBindable {
      * @return The blob.
      */
     public curl_blob getCABlob() {
+        curl_blob blob = this.blob;
+        if (blob == null) {
+            synchronized (this) {
+                blob = this.blob;
+                if (blob == null) {
+                    try {
+                        blob = newBlob(load());
+                    } catch (IOException ex) {
+                        throw new RuntimeException("Failed to load CABundle.", ex);
+                    }
+                    this.blob = blob;
+                }
+            }
+        }
+        return blob;
+    }
+
+    /**
+     * Get a file containing this CABundle, for {@link CURL#CURLOPT_CAINFO} and/or {@link CURL#CURLOPT_PROXY_CAINFO}.
+     * <p>
+     * Curl can only cache its parsed CA store between connections (see {@link CURL#CURLOPT_CA_CACHE_TIMEOUT})
+     * when the bundle is given as a file.
+     * <p>
+     * Bundles created from a path return that path, otherwise the bundle is written to a temporary
+     * file, and deleted on exit. If the temporary file is removed whilst we are running, for example
+     * by a temp directory cleaner, it is written again.
+     *
+     * @return The file.
+     * @throws IOException If the file could not be written.
+     */
+    public Path getCAFile() throws IOException {
+        Path file = this.file;
+        if (file == null || isMissingTempFile(file)) {
+            synchronized (this) {
+                file = this.file;
+                if (file == null || isMissingTempFile(file)) {
+                    file = Files.createTempFile("curl4j-ca-bundle", ".crt");
+                    file.toFile().deleteOnExit();
+                    curl_blob blob = getCABlob();
+                    ByteBuffer data = Memory.newDirectByteBuffer(blob.getData().address, (int) blob.getLen());
+                    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                        while (data.hasRemaining()) {
+                            channel.write(data);
+                        }
+                    }
+                    this.file = file;
+                }
+            }
+        }
+        return file;
+    }
+
+    private boolean isMissingTempFile(Path file) {
+        return file != path && Files.notExists(file);
+    }
+
+    private Pointer load() throws IOException {
+        if (path != null) {
+            // Copied rather than mapped, curl reads the blob directly, and would crash if the file were truncated.
+            return toNativeBuffer(Files.readAllBytes(path));
+        }
+        assert resource != null;
+        try (InputStream is = CABundle.class.getResourceAsStream(resource)) {
+            if (is == null) throw new FileNotFoundException("Embedded resource does not exist: " + resource);
+
+            return toNativeBuffer(toBytes(is));
+        }
+    }
+
+    private static curl_blob newBlob(Pointer data) {
+        curl_blob blob = new curl_blob();
+        blob.setFlags(curl_blob.CURL_BLOB_NOCOPY);
+        blob.setData(data);
+        assert data.buf != null;
+        blob.setLen(data.buf.capacity());
         return blob;
     }
 
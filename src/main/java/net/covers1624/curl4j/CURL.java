@@ -1,6 +1,7 @@
 package net.covers1624.curl4j;
 
 import net.covers1624.curl4j.core.*;
+import net.covers1624.curl4j.util.internal.CurlDowncalls;
 import org.jetbrains.annotations.Nullable;
 
 import static net.covers1624.curl4j.CURL.Functions.*;
@@ -2886,6 +2887,41 @@ public class CURL {
     public static final int CURLM_UNRECOVERABLE_POLL = 12;
     //endregion
 
+    // region CURL_HTTP_VERSION
+    /**
+     * Let curl pick the version.
+     */
+    public static final int CURL_HTTP_VERSION_NONE = 0;
+    public static final int CURL_HTTP_VERSION_1_0 = 1;
+    public static final int CURL_HTTP_VERSION_1_1 = 2;
+    /**
+     * Attempt HTTP/2, falling back to HTTP/1.1.
+     */
+    public static final int CURL_HTTP_VERSION_2_0 = 3;
+    /**
+     * Attempt HTTP/2 over TLS only, HTTP/1.1 for plain text.
+     */
+    public static final int CURL_HTTP_VERSION_2TLS = 4;
+    /**
+     * HTTP/2 without an HTTP/1.1 upgrade.
+     */
+    public static final int CURL_HTTP_VERSION_2_PRIOR_KNOWLEDGE = 5;
+    /**
+     * Attempt HTTP/3, falling back to earlier versions.
+     */
+    public static final int CURL_HTTP_VERSION_3 = 30;
+    /**
+     * HTTP/3 only, no fallback.
+     */
+    public static final int CURL_HTTP_VERSION_3ONLY = 31;
+    // endregion
+
+    // region CURLPIPE
+    public static final int CURLPIPE_NOTHING = 0;
+    public static final int CURLPIPE_HTTP1 = 1;
+    public static final int CURLPIPE_MULTIPLEX = 2;
+    // endregion
+
     // region CURLMMSG
     public static final int CURLMSG_DONE = 1;
     //endregion
@@ -2900,7 +2936,7 @@ public class CURL {
      */
     public static final int CURLMOPT_SOCKETDATA = CURLOPTTYPE_OBJECTPOINT + 2;
     /**
-     * set to 1 to enable pipelining for this multi handle
+     * Bitmask of {@code CURLPIPE_*} values, to enable multiplexing for this multi handle.
      */
     public static final int CURLMOPT_PIPELINING = CURLOPTTYPE_LONG + 2;
     /**
@@ -2957,6 +2993,12 @@ public class CURL {
     public static final int CURLMOPT_MAX_CONCURRENT_STREAMS = CURLOPTTYPE_LONG + 16;
     // endregion
 
+    // region CURL_WAIT
+    public static final int CURL_WAIT_POLLIN = 0x0001;
+    public static final int CURL_WAIT_POLLPRI = 0x0002;
+    public static final int CURL_WAIT_POLLOUT = 0x0004;
+    // endregion
+
     // region CURLPAUSE
     public static final int CURLPAUSE_RECV = 1 << 0;
     public static final int CURLPAUSE_RECV_CONT = 0;
@@ -2966,6 +3008,94 @@ public class CURL {
     public static final int CURLPAUSE_CONT = CURLPAUSE_RECV_CONT | CURLPAUSE_SEND_CONT;
     // endregion
 
+    // region CURLSH results
+    public static final int CURLSHE_OK = 0;
+    public static final int CURLSHE_BAD_OPTION = 1;
+    public static final int CURLSHE_IN_USE = 2;
+    public static final int CURLSHE_INVALID = 3;
+    public static final int CURLSHE_NOMEM = 4;
+    public static final int CURLSHE_NOT_BUILT_IN = 5;
+    // endregion
+
+    // region CURLSHOPT
+    public static final int CURLSHOPT_NONE = 0;
+    /**
+     * Specify a {@code curl_lock_data} to share.
+     */
+    public static final int CURLSHOPT_SHARE = 1;
+    /**
+     * Specify a {@code curl_lock_data} to stop sharing.
+     */
+    public static final int CURLSHOPT_UNSHARE = 2;
+    /**
+     * Pass in a {@link CurlLockCallback}.
+     */
+    public static final int CURLSHOPT_LOCKFUNC = 3;
+    /**
+     * Pass in a {@link CurlUnlockCallback}.
+     */
+    public static final int CURLSHOPT_UNLOCKFUNC = 4;
+    /**
+     * Pass in a user data pointer used in the lock/unlock callback functions.
+     */
+    public static final int CURLSHOPT_USERDATA = 5;
+    // endregion
+
+    // region curl_lock_data
+    public static final int CURL_LOCK_DATA_NONE = 0;
+    /**
+     * Used internally by curl to lock the share object itself.
+     */
+    public static final int CURL_LOCK_DATA_SHARE = 1;
+    public static final int CURL_LOCK_DATA_COOKIE = 2;
+    public static final int CURL_LOCK_DATA_DNS = 3;
+    public static final int CURL_LOCK_DATA_SSL_SESSION = 4;
+    public static final int CURL_LOCK_DATA_CONNECT = 5;
+    public static final int CURL_LOCK_DATA_PSL = 6;
+    public static final int CURL_LOCK_DATA_HSTS = 7;
+    public static final int CURL_LOCK_DATA_LAST = 8;
+    // endregion
+
+    // region curl_lock_access
+    public static final int CURL_LOCK_ACCESS_NONE = 0;
+    public static final int CURL_LOCK_ACCESS_SHARED = 1;
+    public static final int CURL_LOCK_ACCESS_SINGLE = 2;
+    // endregion
+
+    // region CURLH origins
+    /**
+     * Plain server header.
+     */
+    public static final int CURLH_HEADER = 1 << 0;
+    /**
+     * Trailers.
+     */
+    public static final int CURLH_TRAILER = 1 << 1;
+    /**
+     * CONNECT headers.
+     */
+    public static final int CURLH_CONNECT = 1 << 2;
+    /**
+     * 1xx headers.
+     */
+    public static final int CURLH_1XX = 1 << 3;
+    /**
+     * Pseudo headers.
+     */
+    public static final int CURLH_PSEUDO = 1 << 4;
+    // endregion
+
+    // region CURLHcode
+    public static final int CURLHE_OK = 0;
+    public static final int CURLHE_BADINDEX = 1;
+    public static final int CURLHE_MISSING = 2;
+    public static final int CURLHE_NOHEADERS = 3;
+    public static final int CURLHE_NOREQUEST = 4;
+    public static final int CURLHE_OUT_OF_MEMORY = 5;
+    public static final int CURLHE_BAD_ARGUMENT = 6;
+    public static final int CURLHE_NOT_BUILT_IN = 7;
+    // endregion
+
     /**
      * See the curl <a href="https://curl.se/libcurl/c/curl_version.html">documentation</a>.
      *
@@ -3048,7 +3178,7 @@ public class CURL {
      * @param value The value.
      */
     public static @NativeType ("CURLcode") int curl_easy_setopt(@NativeType ("CURL *") long curl, @NativeType ("CURLoption") int opt, long value) {
-        return ncurl_easy_setopt(Functions.curl_easy_setopt, curl, opt, value);
+        return CurlDowncalls.INSTANCE.curl_easy_setopt(curl, opt, value);
     }
 
     /**
@@ -3089,7 +3219,7 @@ public class CURL {
      * @param func The function.
      */
     public static @NativeType ("CURLcode") int curl_easy_setopt(@NativeType ("CURL *") long curl, @NativeType ("CURLoption") int opt, CurlCallback func) {
-        return ncurl_easy_setopt(Functions.curl_easy_setopt, curl, opt, func.getFunctionAddress());
+        return CurlDowncalls.INSTANCE.curl_easy_setopt(curl, opt, func.getFunctionAddress());
     }
 
     /**
@@ -3102,7 +3232,7 @@ public class CURL {
      * @param slist The {@link curl_slist}.
      */
     public static @NativeType ("CURLcode") int curl_easy_setopt(@NativeType ("CURL *") long curl, @NativeType ("CURLoption") int opt, @Nullable curl_slist slist) {
-        return ncurl_easy_setopt(Functions.curl_easy_setopt, curl, opt, slist != null ? slist.address : Memory.NULL);
+        return CurlDowncalls.INSTANCE.curl_easy_setopt(curl, opt, slist != null ? slist.address : Memory.NULL);
     }
 
     /**
@@ -3115,7 +3245,7 @@ public class CURL {
      * @param blob The {@link curl_blob}.
      */
     public static @NativeType ("CURLcode") int curl_easy_setopt(@NativeType ("CURL *") long curl, @NativeType ("CURLoption") int opt, @Nullable curl_blob blob) {
-        return ncurl_easy_setopt(Functions.curl_easy_setopt, curl, opt, blob != null ? blob.address : Memory.NULL);
+        return CurlDowncalls.INSTANCE.curl_easy_setopt(curl, opt, blob != null ? blob.address : Memory.NULL);
     }
 
     /**
@@ -3134,7 +3264,7 @@ public class CURL {
      * @param value Pointer to store the value in.
      */
     public static @NativeType ("CURLcode") int curl_easy_getinfo(@NativeType ("CURL *") long curl, @NativeType ("CURLINFO") int opt, Pointer value) {
-        return ncurl_easy_getinfo(Functions.curl_easy_getinfo, curl, opt, value.address);
+        return CurlDowncalls.INSTANCE.curl_easy_getinfo(curl, opt, value.address);
     }
 
     /**
@@ -3175,6 +3305,7 @@ public class CURL {
         if (!isLong && !isOffT) {
             throw new IllegalArgumentException("Provided 'opt' does not return a long type.");
         }
+        if (isOffT) return curl_easy_getinfo_off_t(curl, opt);
 
         try (Memory.Stack stack = Memory.pushStack()) {
             Pointer pointer = stack.mallocPointer();
@@ -3183,7 +3314,65 @@ public class CURL {
                 throw new IllegalStateException("CURL error querying info: " + curl_easy_strerror(ret));
             }
 
-            return isLong ? pointer.readCLong() : pointer.readSizeT();
+            return pointer.readCLong();
+        }
+    }
+
+    /**
+     * Overload of {@link #curl_easy_getinfo(long, int, Pointer)} for {@link #CURLINFO_OFF_T} types.
+     * <p>
+     * {@code curl_off_t} is always 64 bits, regardless of the platform's pointer size.
+     *
+     * @param curl The CURL handle.
+     * @param opt  The info to select.
+     * @return The value.
+     */
+    public static @NativeType ("curl_off_t") long curl_easy_getinfo_off_t(@NativeType ("CURL *") long curl, @NativeType ("CURLINFO") int opt) {
+        if ((opt & CURLINFO_TYPEMASK) != CURLINFO_OFF_T) {
+            throw new IllegalArgumentException("Provided 'opt' does not return a curl_off_t type.");
+        }
+
+        try (Memory.Stack stack = Memory.pushStack()) {
+            long value = stack.nmalloc(8);
+            int ret = curl_easy_getinfo(curl, opt, new Pointer(value));
+            if (ret != CURLE_OK) {
+                throw new IllegalStateException("CURL error querying info: " + curl_easy_strerror(ret));
+            }
+
+            return Memory.getLong(value);
+        }
+    }
+
+    /**
+     * Query multiple infos from the curl session with a single native call.
+     * <p>
+     * Each value is widened to 64 bits. {@link #CURLINFO_DOUBLE} values are returned as their raw bits,
+     * see {@link Double#longBitsToDouble}. Pointer, string and socket values are returned as addresses.
+     * <p>
+     * All infos are queried, even if some fail. Failed {@link #CURLINFO_LONG} and {@link #CURLINFO_OFF_T}
+     * values are set to {@code -1}, for example when the installed curl is too old to know the info.
+     *
+     * @param curl   The CURL handle.
+     * @param infos  The infos to select.
+     * @param values The array to store the values in, at the same index as their info.
+     * @return The first {@code CURLcode} which was not {@link #CURLE_OK}, or {@link #CURLE_OK}.
+     */
+    public static @NativeType ("CURLcode") int curl_easy_getinfo_batch(@NativeType ("CURL *") long curl, @NativeType ("CURLINFO *") int[] infos, long[] values) {
+        if (values.length < infos.length) throw new IllegalArgumentException("Values array is smaller than infos array.");
+        if (infos.length == 0) return CURLE_OK;
+
+        try (Memory.Stack stack = Memory.pushStack()) {
+            // Values first, keeps them 8 byte aligned.
+            long pValues = stack.nmalloc(infos.length * 8);
+            long pInfos = stack.nmalloc(infos.length * 4);
+            for (int i = 0; i < infos.length; i++) {
+                Memory.putInt(pInfos + i * 4L, infos[i]);
+            }
+            int ret = ncurl_easy_getinfo_batch(curl_easy_getinfo, curl, pInfos, infos.length, pValues);
+            for (int i = 0; i < infos.length; i++) {
+                values[i] = Memory.getLong(pValues + i * 8L);
+            }
+            return ret;
         }
     }
 
@@ -3255,6 +3444,74 @@ public class CURL {
         return ncurl_easy_impersonate(Functions.curl_easy_impersonate, curl, target, default_headers);
     }
 
+    /**
+     * If the bound CURL library supports {@link #curl_easy_header} and {@link #curl_easy_nextheader}.
+     * <p>
+     * These were added in curl 7.83.0. Curl may still have been built without them, in which case
+     * they return {@link #CURLHE_NOT_BUILT_IN} and {@code null} respectively.
+     *
+     * @return If the header API is available.
+     */
+    public static boolean isCurlEasyHeaderSupported() {
+        return Functions.curl_easy_header != Memory.NULL && Functions.curl_easy_nextheader != Memory.NULL;
+    }
+
+    /**
+     * Get a response header stored by curl.
+     * <p>
+     * See the curl <a href="https://curl.se/libcurl/c/curl_easy_header.html">documentation</a>.
+     *
+     * @param curl    The curl handle.
+     * @param name    The header name, case-insensitive.
+     * @param index   The index of the header, if it appears more than once.
+     * @param origin  Bitmask of {@code CURLH_*} origins to search.
+     * @param request The request to get the header for, {@code -1} for the last request.
+     * @param hout    Pointer to store the {@link curl_header} pointer.
+     * @return The CURLHcode response.
+     */
+    public static @NativeType ("CURLHcode") int curl_easy_header(@NativeType ("CURL *") long curl, String name, long index, int origin, int request, Pointer hout) {
+        return ncurl_easy_header(Functions.curl_easy_header, curl, name, index, origin, request, hout.address);
+    }
+
+    /**
+     * Get a response header stored by curl.
+     * <p>
+     * See the curl <a href="https://curl.se/libcurl/c/curl_easy_header.html">documentation</a>.
+     *
+     * @param curl    The curl handle.
+     * @param name    The header name, case-insensitive.
+     * @param index   The index of the header, if it appears more than once.
+     * @param origin  Bitmask of {@code CURLH_*} origins to search.
+     * @param request The request to get the header for, {@code -1} for the last request.
+     * @return The header, or {@code null} if it does not exist.
+     */
+    public static @Nullable curl_header curl_easy_header(@NativeType ("CURL *") long curl, String name, long index, int origin, int request) {
+        try (Memory.Stack stack = Memory.pushStack()) {
+            Pointer hout = stack.mallocPointer();
+            if (curl_easy_header(curl, name, index, origin, request, hout) != CURLHE_OK) return null;
+
+            return new curl_header(Memory.getAddress(hout.address));
+        }
+    }
+
+    /**
+     * Iterate the response headers stored by curl.
+     * <p>
+     * See the curl <a href="https://curl.se/libcurl/c/curl_easy_nextheader.html">documentation</a>.
+     *
+     * @param curl    The curl handle.
+     * @param origin  Bitmask of {@code CURLH_*} origins to iterate.
+     * @param request The request to get the headers for, {@code -1} for the last request.
+     * @param prev    The previous header, {@code null} to start from the first.
+     * @return The next header, or {@code null} if there are no more.
+     */
+    public static @Nullable curl_header curl_easy_nextheader(@NativeType ("CURL *") long curl, int origin, int request, @Nullable curl_header prev) {
+        long ret = ncurl_easy_nextheader(Functions.curl_easy_nextheader, curl, origin, request, prev != null ? prev.address : Memory.NULL);
+        if (ret == Memory.NULL) return null;
+
+        return new curl_header(ret);
+    }
+
     /**
      * Appends a string to a linked list. If no list exists, it will be created
      * first. Returns the new list, after appending.
@@ -3439,7 +3696,7 @@ public class CURL {
      * @return The CURLMcode response.
      */
     public static @NativeType ("CURLMcode") int curl_multi_add_handle(@NativeType ("CURLM *") long multi, @NativeType ("CURL *") long curl) {
-        return ncurl_multi_add_handle(curl_multi_add_handle, multi, curl);
+        return CurlDowncalls.INSTANCE.curl_multi_add_handle(multi, curl);
     }
 
     /**
@@ -3478,7 +3735,7 @@ public class CURL {
      * @return The CURLMsg struct. Will return {@code null} when no more messages are available.
      */
     public static @Nullable CURLMsg curl_multi_info_read(long multi, Pointer msgsInQueue) {
-        long ret = ncurl_multi_info_read(curl_multi_info_read, multi, msgsInQueue.address);
+        long ret = CurlDowncalls.INSTANCE.curl_multi_info_read(multi, msgsInQueue.address);
         if (ret == Memory.NULL) return null;
 
         return new CURLMsg(ret);
@@ -3497,6 +3754,58 @@ public class CURL {
         return ncurl_multi_timeout(curl_multi_timeout, multi, millisecondsPtr.address);
     }
 
+    /**
+     * Poll on all easy handles in a multi session.
+     * <p>
+     * Blocks until activity is detected on at least one of the handles, the timeout
+     * expires, or {@link #curl_multi_wakeup} is called.
+     * <p>
+     * See the curl <a href="https://curl.se/libcurl/c/curl_multi_poll.html">documentation</a>.
+     *
+     * @param multi      The multi handle.
+     * @param extra_fds  Pointer to an array of extra {@code curl_waitfd} structs to wait on. May be {@link Memory#NULL}.
+     * @param extra_nfds The number of entries in {@code extra_fds}.
+     * @param timeout_ms The maximum number of milliseconds to wait.
+     * @param numfds     Pointer to store the number of file descriptors with activity. May be {@code null}.
+     * @return The CURLMcode response.
+     */
+    public static @NativeType ("CURLMcode") int curl_multi_poll(@NativeType ("CURLM *") long multi, @NativeType ("struct curl_waitfd *") long extra_fds, int extra_nfds, int timeout_ms, @Nullable Pointer numfds) {
+        return CurlDowncalls.INSTANCE.curl_multi_poll(multi, extra_fds, extra_nfds, timeout_ms, numfds != null ? numfds.address : Memory.NULL);
+    }
+
+    /**
+     * Wait for activity on any of the multi handle's sockets, or the extra sockets provided.
+     * <p>
+     * Unlike {@link #curl_multi_poll}, this function returns immediately if there are no sockets
+     * to wait on, and can not be woken by {@link #curl_multi_wakeup}.
+     * <p>
+     * See the curl <a href="https://curl.se/libcurl/c/curl_multi_wait.html">documentation</a>.
+     *
+     * @param multi      The multi handle.
+     * @param extra_fds  Pointer to an array of extra {@code curl_waitfd} structs to wait on. May be {@link Memory#NULL}.
+     * @param extra_nfds The number of entries in {@code extra_fds}.
+     * @param timeout_ms The maximum number of milliseconds to wait.
+     * @param numfds     Pointer to store the number of file descriptors with activity. May be {@code null}.
+     * @return The CURLMcode response.
+     */
+    public static @NativeType ("CURLMcode") int curl_multi_wait(@NativeType ("CURLM *") long multi, @NativeType ("struct curl_waitfd *") long extra_fds, int extra_nfds, int timeout_ms, @Nullable Pointer numfds) {
+        return ncurl_multi_wait(curl_multi_wait, multi, extra_fds, extra_nfds, timeout_ms, numfds != null ? numfds.address : Memory.NULL);
+    }
+
+    /**
+     * Wake up a thread blocked in {@link #curl_multi_poll}.
+     * <p>
+     * This function may be called from any thread.
+     * <p>
+     * See the curl <a href="https://curl.se/libcurl/c/curl_multi_wakeup.html">documentation</a>.
+     *
+     * @param multi The multi handle.
+     * @return The CURLMcode response.
+     */
+    public static @NativeType ("CURLMcode") int curl_multi_wakeup(@NativeType ("CURLM *") long multi) {
+        return CurlDowncalls.INSTANCE.curl_multi_wakeup(multi);
+    }
+
     /**
      * Set an option on the multi session.
      * <p>
@@ -3537,6 +3846,71 @@ public class CURL {
         return ncurl_multi_strerror(curl_multi_strerror, code);
     }
 
+    /**
+     * Create a share handle.
+     * <p>
+     * See the curl <a href="https://curl.se/libcurl/c/curl_share_init.html">documentation</a>.
+     *
+     * @return The share handle.
+     */
+    public static @NativeType ("CURLSH *") long curl_share_init() {
+        return ncurl_share_init(curl_share_init);
+    }
+
+    /**
+     * Set an option on the share handle.
+     * <p>
+     * See the curl <a href="https://curl.se/libcurl/c/curl_share_setopt.html">documentation</a>.
+     *
+     * @param share The share handle.
+     * @param opt   The option.
+     * @param value The option value.
+     * @return The CURLSHcode response.
+     */
+    public static @NativeType ("CURLSHcode") int curl_share_setopt(@NativeType ("CURLSH *") long share, @NativeType ("CURLSHoption") int opt, long value) {
+        return ncurl_share_setopt(curl_share_setopt, share, opt, value);
+    }
+
+    /**
+     * Set an option on the share handle.
+     * <p>
+     * See the curl <a href="https://curl.se/libcurl/c/curl_share_setopt.html">documentation</a>.
+     *
+     * @param share    The share handle.
+     * @param opt      The option.
+     * @param callback The callback function.
+     * @return The CURLSHcode response.
+     */
+    public static @NativeType ("CURLSHcode") int curl_share_setopt(@NativeType ("CURLSH *") long share, @NativeType ("CURLSHoption") int opt, CurlCallback callback) {
+        return ncurl_share_setopt(curl_share_setopt, share, opt, callback.getFunctionAddress());
+    }
+
+    /**
+     * Cleanup and free a share handle.
+     * <p>
+     * The share handle must not be in use by any curl handles.
+     * <p>
+     * See the curl <a href="https://curl.se/libcurl/c/curl_share_cleanup.html">documentation</a>.
+     *
+     * @param share The share handle.
+     * @return The CURLSHcode response.
+     */
+    public static @NativeType ("CURLSHcode") int curl_share_cleanup(@NativeType ("CURLSH *") long share) {
+        return ncurl_share_cleanup(curl_share_cleanup, share);
+    }
+
+    /**
+     * Get a string describing the code.
+     * <p>
+     * See the curl <a href="https://curl.se/libcurl/c/curl_share_strerror.html">documentation</a>.
+     *
+     * @param code the CURLSHcode.
+     * @return The CURLSHcode response.
+     */
+    public static String curl_share_strerror(@NativeType ("CURLSHcode") int code) {
+        return ncurl_share_strerror(curl_share_strerror, code);
+    }
+
     /**
      * Class to hold all the libCURL function pointers.
      * <p>
@@ -3562,6 +3936,8 @@ public class CURL {
         public static final long curl_easy_strerror = CURL.getFunction("curl_easy_strerror");
         public static final long curl_easy_cleanup = CURL.getFunction("curl_easy_cleanup");
         public static final long curl_easy_impersonate = CURL.getOptionalFunction("curl_easy_impersonate");
+        public static final long curl_easy_header = CURL.getOptionalFunction("curl_easy_header");
+        public static final long curl_easy_nextheader = CURL.getOptionalFunction("curl_easy_nextheader");
         public static final long curl_slist_append = CURL.getFunction("curl_slist_append");
         public static final long curl_slist_free_all = CURL.getFunction("curl_slist_free_all");
         public static final long curl_mime_init = CURL.getFunction("curl_mime_init");
@@ -3580,9 +3956,17 @@ public class CURL {
         public static final long curl_multi_perform = CURL.getFunction("curl_multi_perform");
         public static final long curl_multi_info_read = CURL.getFunction("curl_multi_info_read");
         public static final long curl_multi_timeout = CURL.getFunction("curl_multi_timeout");
+        public static final long curl_multi_poll = CURL.getFunction("curl_multi_poll");
+        public static final long curl_multi_wait = CURL.getFunction("curl_multi_wait");
+        public static final long curl_multi_wakeup = CURL.getFunction("curl_multi_wakeup");
         public static final long curl_multi_setopt = CURL.getFunction("curl_multi_setopt");
         public static final long curl_multi_strerror = CURL.getFunction("curl_multi_strerror");
 
+        public static final long curl_share_init = CURL.getFunction("curl_share_init");
+        public static final long curl_share_setopt = CURL.getFunction("curl_share_setopt");
+        public static final long curl_share_cleanup = CURL.getFunction("curl_share_cleanup");
+        public static final long curl_share_strerror = CURL.getFunction("curl_share_strerror");
+
         // @formatter:off
         public static native String ncurl_version(long func);
         public static native long ncurl_version_info(long func);
@@ -3594,10 +3978,14 @@ public class CURL {
         public static native int ncurl_easy_pause(long func, long curl, int bitmask);
         public static native int ncurl_easy_setopt(long func, long curl, int opt, long value);
         public static native int ncurl_easy_setopt(long func, long curl, int opt, String value);
+        public static native int ncurl_easy_setopt_batch(long func, long curl, long options, int count, long strings);
         public static native int ncurl_easy_getinfo(long func, long curl, int info, long value);
+        public static native int ncurl_easy_getinfo_batch(long func, long curl, long infos, int count, long values);
         public static native String ncurl_easy_strerror(long func, int code);
         public static native void ncurl_easy_cleanup(long func, long curl);
         public static native int ncurl_easy_impersonate(long func, long curl, String target, boolean defaultHeaders);
+        public static native int ncurl_easy_header(long func, long curl, String name, long index, int origin, int request, long hout);
+        public static native long ncurl_easy_nextheader(long func, long curl, int origin, int request, long prev);
         public static native long ncurl_slist_append(long func, long list, String data);
         public static native void ncurl_slist_free_all(long func, long list);
         public static native long ncurl_mime_init(long func, long curl);
@@ -3616,8 +4004,16 @@ public class CURL {
         public static native int ncurl_multi_perform(long func, long multi, long runningHandlesPtr);
         public static native long ncurl_multi_info_read(long func, long multi, long msgsInQueuePtr);
         public static native int ncurl_multi_timeout(long func, long multi, long millisecondsPtr);
+        public static native int ncurl_multi_poll(long func, long multi, long extraFds, int extraNfds, int timeoutMs, long numFdsPtr);
+        public static native int ncurl_multi_wait(long func, long multi, long extraFds, int extraNfds, int timeoutMs, long numFdsPtr);
+        public static native int ncurl_multi_wakeup(long func, long multi);
         public static native int ncurl_multi_setopt(long func, long multi, int opt, long value);
         public static native String ncurl_multi_strerror(long func, int code);
+
+        public static native long ncurl_share_init(long func);
+        public static native int ncurl_share_setopt(long func, long share, int opt, long value);
+        public static native int ncurl_share_cleanup(long func, long share);
+        public static native String ncurl_share_strerror(long func, int code);
         // @formatter:on
     }
 }
@@ -16,4 +16,8 @@ public abstract class CurlCallback extends Callback {
     protected CurlCallback(long cif, long callback, CallbackInterface delegate) {
         super(cif, callback, delegate);
     }
+
+    protected CurlCallback(long cif, long callback, long errorResult, CallbackInterface delegate) {
+        super(cif, callback, errorResult, delegate);
+    }
 }
@@ -16,11 +16,11 @@ public class CurlHeaderCallback extends CurlCallback implements CurlHeaderCallba
     );
 
     public CurlHeaderCallback(CurlHeaderCallbackI delegate) {
-        super(cif, delegate);
+        super(cif, builtin_callback_data, CURL.CURL_WRITEFUNC_ERROR, delegate);
     }
 
     protected CurlHeaderCallback() {
-        super(cif, null);
+        super(cif, builtin_callback_data, CURL.CURL_WRITEFUNC_ERROR, null);
     }
 
     @Override
@@ -30,6 +30,13 @@ public interface CurlHeaderCallbackI extends Callback.CallbackInterface {
         putSizeT(ret, rs);
     }
 
+    @Override
+    default long invokeData(@NativeType ("char *") long ptr, @NativeType ("size_t") long size, @NativeType ("size_t") long nmemb, @NativeType ("void *") long userdata) {
+        int rs = (int) (size * nmemb);
+        onHeader(readUtf8(ptr, rs), userdata);
+        return rs;
+    }
+
     /**
      * Called for each header.
      * <p>
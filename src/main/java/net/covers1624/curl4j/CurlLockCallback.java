@@ -0,0 +1,30 @@
+package net.covers1624.curl4j;
+
+/**
+ * A function callback for locking shared data.
+ * <p>
+ * See the curl <a href="https://curl.se/libcurl/c/CURLSHOPT_LOCKFUNC.html">documentation</a>.
+ *
+ * @author covers1624
+ * @see CurlLockCallbackI
+ */
+public class CurlLockCallback extends CurlCallback implements CurlLockCallbackI {
+
+    private static final long cif = ffi_prep_cif(
+            ffi_type_void,
+            ffi_type_pointer, ffi_type_int, ffi_type_int, ffi_type_pointer
+    );
+
+    public CurlLockCallback(CurlLockCallbackI delegate) {
+        super(cif, delegate);
+    }
+
+    protected CurlLockCallback() {
+        super(cif, null);
+    }
+
+    @Override
+    public void lock(long handle, int data, int access, long userptr) {
+        throw new UnsupportedOperationException("Not implemented. Override this function or provide a delegate.");
+    }
+}
@@ -0,0 +1,41 @@
+package net.covers1624.curl4j;
+
+import net.covers1624.curl4j.core.Callback;
+import net.covers1624.curl4j.core.NativeType;
+
+import static net.covers1624.curl4j.core.Memory.*;
+import static net.covers1624.curl4j.core.NativeTypes.POINTER_SIZE;
+
+/**
+ * A functional interface callback for locking shared data.
+ * <p>
+ * See the curl <a href="https://curl.se/libcurl/c/CURLSHOPT_LOCKFUNC.html">documentation</a>.
+ *
+ * @author covers1624
+ * @see CurlLockCallback
+ */
+@FunctionalInterface
+public interface CurlLockCallbackI extends Callback.CallbackInterface {
+
+    @Override
+    default void invoke(@NativeType ("void *") long ret, @NativeType ("void **") long args) {
+        long handle = getAddress(getAddress(args));
+        int data = getInt(getAddress(args + POINTER_SIZE));
+        int access = getInt(getAddress(args + 2L * POINTER_SIZE));
+        long userptr = getAddress(getAddress(args + 3L * POINTER_SIZE));
+
+        lock(handle, data, access, userptr);
+    }
+
+    /**
+     * Called to lock the given shared data.
+     * <p>
+     * See the curl <a href="https://curl.se/libcurl/c/CURLSHOPT_LOCKFUNC.html">documentation</a>.
+     *
+     * @param handle  The curl handle requesting the lock.
+     * @param data    The {@code curl_lock_data} to lock. See {@link CURL#CURL_LOCK_DATA_SHARE} etc.
+     * @param access  The {@code curl_lock_access} required. See {@link CURL#CURL_LOCK_ACCESS_SHARED} etc.
+     * @param userptr User pointer set by {@link CURL#CURLSHOPT_USERDATA}.
+     */
+    void lock(@NativeType ("CURL *") long handle, @NativeType ("curl_lock_data") int data, @NativeType ("curl_lock_access") int access, @NativeType ("void *") long userptr);
+}
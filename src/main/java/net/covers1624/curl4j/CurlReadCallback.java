@@ -18,11 +18,11 @@ public class CurlReadCallback extends CurlCallback implements CurlReadCallbackI
     );
 
     public CurlReadCallback(CurlReadCallbackI delegate) {
-        super(cif, delegate);
+        super(cif, builtin_callback_data, CURL.CURL_READFUNC_ABORT, delegate);
     }
 
     protected CurlReadCallback() {
-        super(cif, null);
+        super(cif, builtin_callback_data, CURL.CURL_READFUNC_ABORT, null);
     }
 
     @Override
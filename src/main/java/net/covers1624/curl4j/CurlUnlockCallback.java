@@ -0,0 +1,30 @@
+package net.covers1624.curl4j;
+
+/**
+ * A function callback for unlocking shared data.
+ * <p>
+ * See the curl <a href="https://curl.se/libcurl/c/CURLSHOPT_UNLOCKFUNC.html">documentation</a>.
+ *
+ * @author covers1624
+ * @see CurlUnlockCallbackI
+ */
+public class CurlUnlockCallback extends CurlCallback implements CurlUnlockCallbackI {
+
+    private static final long cif = ffi_prep_cif(
+            ffi_type_void,
+            ffi_type_pointer, ffi_type_int, ffi_type_pointer
+    );
+
+    public CurlUnlockCallback(CurlUnlockCallbackI delegate) {
+        super(cif, delegate);
+    }
+
+    protected CurlUnlockCallback() {
+        super(cif, null);
+    }
+
+    @Override
+    public void unlock(long handle, int data, long userptr) {
+        throw new UnsupportedOperationException("Not implemented. Override this function or provide a delegate.");
+    }
+}
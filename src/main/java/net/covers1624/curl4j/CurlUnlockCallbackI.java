@@ -0,0 +1,39 @@
+package net.covers1624.curl4j;
+
+import net.covers1624.curl4j.core.Callback;
+import net.covers1624.curl4j.core.NativeType;
+
+import static net.covers1624.curl4j.core.Memory.*;
+import static net.covers1624.curl4j.core.NativeTypes.POINTER_SIZE;
+
+/**
+ * A functional interface callback for unlocking shared data.
+ * <p>
+ * See the curl <a href="https://curl.se/libcurl/c/CURLSHOPT_UNLOCKFUNC.html">documentation</a>.
+ *
+ * @author covers1624
+ * @see CurlUnlockCallback
+ */
+@FunctionalInterface
+public interface CurlUnlockCallbackI extends Callback.CallbackInterface {
+
+    @Override
+    default void invoke(@NativeType ("void *") long ret, @NativeType ("void **") long args) {
+        long handle = getAddress(getAddress(args));
+        int data = getInt(getAddress(args + POINTER_SIZE));
+        long userptr = getAddress(getAddress(args + 2L * POINTER_SIZE));
+
+        unlock(handle, data, userptr);
+    }
+
+    /**
+     * Called to unlock the given shared data.
+     * <p>
+     * See the curl <a href="https://curl.se/libcurl/c/CURLSHOPT_UNLOCKFUNC.html">documentation</a>.
+     *
+     * @param handle  The curl handle releasing the lock.
+     * @param data    The {@code curl_lock_data} to unlock. See {@link CURL#CURL_LOCK_DATA_SHARE} etc.
+     * @param userptr User pointer set by {@link CURL#CURLSHOPT_USERDATA}.
+     */
+    void unlock(@NativeType ("CURL *") long handle, @NativeType ("curl_lock_data") int data, @NativeType ("void *") long userptr);
+}
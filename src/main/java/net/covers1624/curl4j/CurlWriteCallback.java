@@ -18,11 +18,11 @@ public class CurlWriteCallback extends CurlCallback implements CurlWriteCallback
     );
 
     public CurlWriteCallback(CurlWriteCallbackI delegate) {
-        super(cif, delegate);
+        super(cif, builtin_callback_data, CURL.CURL_WRITEFUNC_ERROR, delegate);
     }
 
     protected CurlWriteCallback() {
-        super(cif, null);
+        super(cif, builtin_callback_data, CURL.CURL_WRITEFUNC_ERROR, null);
     }
 
     @Override
@@ -35,6 +35,11 @@ public interface CurlWriteCallbackI extends Callback.CallbackInterface {
         }
     }
 
+    @Override
+    default long invokeData(@NativeType ("char *") long ptr, @NativeType ("size_t") long size, @NativeType ("size_t") long nmemb, @NativeType ("void *") long userdata) throws IOException {
+        return write(ptr, size, nmemb, userdata);
+    }
+
 
     /**
      * Called to empty the curl buffer.
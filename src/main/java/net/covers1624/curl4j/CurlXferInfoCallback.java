@@ -16,11 +16,11 @@ public class CurlXferInfoCallback extends CurlCallback implements CurlXferInfoCa
     );
 
     public CurlXferInfoCallback(CurlXferInfoCallbackI delegate) {
-        super(cif, delegate);
+        super(cif, builtin_callback_progress, 1, delegate);
     }
 
     protected CurlXferInfoCallback() {
-        super(cif, null);
+        super(cif, builtin_callback_progress, 1, null);
     }
 
     @Override
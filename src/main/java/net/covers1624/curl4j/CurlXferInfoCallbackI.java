@@ -29,6 +29,11 @@ public interface CurlXferInfoCallbackI extends Callback.CallbackInterface {
         putInt(ret, r);
     }
 
+    @Override
+    default int invokeProgress(@NativeType ("void *") long ptr, @NativeType ("curl_off_t") long dltotal, @NativeType ("curl_off_t") long dlnow, @NativeType ("curl_off_t") long ultotal, @NativeType ("curl_off_t") long ulnow) {
+        return update(ptr, dltotal, dlnow, ultotal, ulnow);
+    }
+
     /**
      * Called to receive the transfer progress statistics.
      * <p>
@@ -4,27 +4,48 @@ import org.jetbrains.annotations.MustBeInvokedByOverriders;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author covers1624
  */
 public abstract class Callback implements AutoCloseable {
 
+    protected static final long ffi_type_void = ffi_type_void();
     protected static final long ffi_type_pointer = ffi_type_pointer();
     protected static final long ffi_type_int = ffi_type_int();
     protected static final long ffi_type_long = ffi_type_long();
 
-    private static final long builtin_callback = ffi_callback(Reflect.getDeclaredMethod(Callback.class, "ffi_callback", long.class, long.class));
+    private static final long builtin_callback = ffi_callback(Reflect.getDeclaredMethod(Closure.class, "ffi_callback", long.class, long.class));
+
+    /**
+     * Specialized built-in callback for {@code size_t (void *, size_t, size_t, void *)} functions.
+     * <p>
+     * The arguments are unpacked natively and passed straight to {@link CallbackInterface#invokeData},
+     * skipping the generic argument array.
+     */
+    protected static final long builtin_callback_data = ffi_callback_data(Reflect.getDeclaredMethod(Closure.class, "ffi_callback_data", long.class, long.class, long.class, long.class));
+
+    /**
+     * Specialized built-in callback for {@code int (void *, int64_t, int64_t, int64_t, int64_t)} functions.
+     * <p>
+     * The arguments are unpacked natively and passed straight to {@link CallbackInterface#invokeProgress},
+     * skipping the generic argument array.
+     */
+    protected static final long builtin_callback_progress = ffi_callback_progress(Reflect.getDeclaredMethod(Closure.class, "ffi_callback_progress", long.class, long.class, long.class, long.class, long.class));
 
     private final long cif;
     private final long callback;
+    private final long errorResult;
     private final CallbackInterface delegate;
 
     private CallbackExceptionHandler exceptionHandler = CallbackExceptionHandler.DEFAULT;
 
-    private long closure = Memory.NULL;
-    private long delegateRef = Memory.NULL;
-    private long code = Memory.NULL;
+    private @Nullable Closure closure;
 
     /**
      * Construct a new callback, must be from an overridden class.
@@ -55,8 +76,25 @@ public abstract class Callback implements AutoCloseable {
      *                 implements {@link CallbackInterface}.
      */
     protected Callback(long cif, long callback, @Nullable CallbackInterface delegate) {
+        this(cif, callback, 0, delegate);
+    }
+
+    /**
+     * Construct a new callback using one of the specialized built-in callbacks,
+     * must be from an overridden class.
+     *
+     * @param cif         The Callback interface for libffi to generate via {@link #ffi_prep_cif}.
+     *                    This should be constructed and stored in a static variable.
+     * @param callback    The specialized built-in callback, {@link #builtin_callback_data} or
+     *                    {@link #builtin_callback_progress}.
+     * @param errorResult The value returned to native land if the delegate throws an exception.
+     * @param delegate    The delegate to call, if null is specified, it is expected that this class
+     *                    implements {@link CallbackInterface}.
+     */
+    protected Callback(long cif, long callback, long errorResult, @Nullable CallbackInterface delegate) {
         this.cif = cif;
         this.callback = callback;
+        this.errorResult = errorResult;
         if (delegate == null) {
             if (!(this instanceof CallbackInterface)) {
                 throw new IllegalArgumentException("When delegate is null, expected this object to be a CallbackInterface");
@@ -68,26 +106,14 @@ public abstract class Callback implements AutoCloseable {
     }
 
     public final long getFunctionAddress() {
-        if (closure == Memory.NULL) {
-            try (Memory.Stack stack = Memory.pushStack()) {
-                Pointer codePtr = stack.mallocPointer();
-                closure = ffi_closure_alloc(codePtr.address);
-                if (closure == Memory.NULL) throw new OutOfMemoryError("Unable to alloc ffi closure");
-
-                code = codePtr.readAddress();
-            }
-            if (callback == builtin_callback) {
-                delegateRef = Memory.newGlobalRef(this);
+        if (closure == null) {
+            if (callback == builtin_callback || callback == builtin_callback_data || callback == builtin_callback_progress) {
+                closure = Closure.acquire(cif, callback, this);
             } else {
-                delegateRef = Memory.newGlobalRef(delegate);
-            }
-            int ret = ffi_prep_closure_loc(closure, cif, callback, delegateRef, code);
-            if (ret != 0 /* FFI_OK */) {
-                close();
-                throw new RuntimeException("ffi_prep_closure_loc failed. Code: " + ret);
+                closure = new Closure(null, cif, callback, delegate);
             }
         }
-        return code;
+        return closure.code;
     }
 
     /**
@@ -99,15 +125,20 @@ public abstract class Callback implements AutoCloseable {
         this.exceptionHandler = exceptionHandler;
     }
 
+    /**
+     * Close this callback, releasing its native function.
+     * <p>
+     * The callback must no longer be registered anywhere native code may invoke it, for
+     * example by clearing the curl option, or resetting the curl handle. Callbacks using the
+     * built-in native callbacks hand their function to the next {@link Callback} created, so
+     * a stale registration would invoke that callback instead.
+     */
     @Override
     @MustBeInvokedByOverriders
     public void close() {
-        if (closure != Memory.NULL) {
-            ffi_closure_free(closure);
-            closure = Memory.NULL;
-            code = Memory.NULL;
-            Memory.deleteGlobalRef(delegateRef);
-            delegateRef = Memory.NULL;
+        if (closure != null) {
+            closure.release();
+            closure = null;
         }
         if (delegate != this) {
             try {
@@ -123,6 +154,8 @@ public abstract class Callback implements AutoCloseable {
         throw (T) t;
     }
 
+    private static native long ffi_type_void();
+
     private static native long ffi_type_pointer();
 
     private static native long ffi_type_int();
@@ -156,7 +189,10 @@ public abstract class Callback implements AutoCloseable {
 
     private static native long ffi_callback(Method method);
 
-    // Invoked by JNI in native land, simply forwards the callback through.
+    private static native long ffi_callback_data(Method method);
+
+    private static native long ffi_callback_progress(Method method);
+
     private void ffi_callback(long ret, long args) throws Throwable {
         try {
             delegate.invoke(ret, args);
@@ -165,6 +201,164 @@ public abstract class Callback implements AutoCloseable {
         }
     }
 
+    private long ffi_callback_data(long ptr, long size, long nmemb, long userdata) throws Throwable {
+        try {
+            return delegate.invokeData(ptr, size, nmemb, userdata);
+        } catch (Throwable ex) {
+            exceptionHandler.onException(ex);
+            return errorResult;
+        }
+    }
+
+    private int ffi_callback_progress(long ptr, long a, long b, long c, long d) throws Throwable {
+        try {
+            return delegate.invokeProgress(ptr, a, b, c, d);
+        } catch (Throwable ex) {
+            exceptionHandler.onException(ex);
+            return (int) errorResult;
+        }
+    }
+
+    /**
+     * A prepared libffi closure.
+     * <p>
+     * Closures for the built-in callbacks point at a global ref to this object, not to the
+     * {@link Callback} itself. They are pooled per cif, and handed to the next {@link Callback}
+     * by swapping {@link #target}, instead of allocating a new closure and global ref each time.
+     * <p>
+     * Invoking a pooled closure whilst it is idle fails with an {@link IllegalStateException}.
+     * Once it has been handed to another {@link Callback}, it invokes that one, so owners must
+     * unregister a closure before releasing it.
+     */
+    private static final class Closure {
+
+        private static final int POOL_SIZE = Integer.getInteger("net.covers1624.curl4j.closure_pool_size", 32);
+        private static final Map<Key, Pool> POOLS = new ConcurrentHashMap<>();
+
+        private final @Nullable Key key;
+        private final long closure;
+        private final long code;
+        private final long ref;
+
+        // Only changed whilst the closure is not registered anywhere.
+        private @Nullable Callback target;
+
+        private Closure(@Nullable Key key, long cif, long callback, @Nullable Object userdata) {
+            this.key = key;
+            try (Memory.Stack stack = Memory.pushStack()) {
+                Pointer codePtr = stack.mallocPointer();
+                closure = ffi_closure_alloc(codePtr.address);
+                if (closure == Memory.NULL) throw new OutOfMemoryError("Unable to alloc ffi closure");
+
+                code = codePtr.readAddress();
+            }
+            // Built-in callbacks point at us, and forward to the current target.
+            ref = Memory.newGlobalRef(userdata != null ? userdata : this);
+            int ret = ffi_prep_closure_loc(closure, cif, callback, ref, code);
+            if (ret != 0 /* FFI_OK */) {
+                free();
+                throw new RuntimeException("ffi_prep_closure_loc failed. Code: " + ret);
+            }
+        }
+
+        static Closure acquire(long cif, long callback, Callback target) {
+            Key key = new Key(cif, callback);
+            Pool pool = POOLS.get(key);
+            Closure closure = pool != null ? pool.poll() : null;
+            if (closure == null) {
+                closure = new Closure(key, cif, callback, null);
+            }
+            closure.target = target;
+            return closure;
+        }
+
+        void release() {
+            if (key == null) {
+                free();
+                return;
+            }
+            target = null;
+            Pool pool = POOLS.computeIfAbsent(key, e -> new Pool());
+            if (!pool.offer(this)) {
+                free();
+            }
+        }
+
+        private void free() {
+            ffi_closure_free(closure);
+            Memory.deleteGlobalRef(ref);
+        }
+
+        private Callback target() {
+            Callback target = this.target;
+            // Only catches stale invocations whilst we are idle in the pool.
+            if (target == null) throw new IllegalStateException("Callback invoked after it was closed.");
+            return target;
+        }
+
+        // Invoked by JNI in native land, simply forwards the callback through.
+        private void ffi_callback(long ret, long args) throws Throwable {
+            target().ffi_callback(ret, args);
+        }
+
+        // Invoked by JNI in native land, for the specialized data callback.
+        private long ffi_callback_data(long ptr, long size, long nmemb, long userdata) throws Throwable {
+            return target().ffi_callback_data(ptr, size, nmemb, userdata);
+        }
+
+        // Invoked by JNI in native land, for the specialized progress callback.
+        private int ffi_callback_progress(long ptr, long a, long b, long c, long d) throws Throwable {
+            return target().ffi_callback_progress(ptr, a, b, c, d);
+        }
+
+        private static final class Key {
+
+            private final long cif;
+            private final long callback;
+
+            private Key(long cif, long callback) {
+                this.cif = cif;
+                this.callback = callback;
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                if (this == o) return true;
+                if (!(o instanceof Key)) return false;
+                Key key = (Key) o;
+                return cif == key.cif && callback == key.callback;
+            }
+
+            @Override
+            public int hashCode() {
+                return Objects.hash(cif, callback);
+            }
+        }
+
+        private static final class Pool {
+
+            private final ConcurrentLinkedDeque<Closure> idle = new ConcurrentLinkedDeque<>();
+            private final AtomicInteger size = new AtomicInteger();
+
+            @Nullable Closure poll() {
+                Closure closure = idle.pollFirst();
+                if (closure != null) {
+                    size.decrementAndGet();
+                }
+                return closure;
+            }
+
+            boolean offer(Closure closure) {
+                if (size.incrementAndGet() > POOL_SIZE) {
+                    size.decrementAndGet();
+                    return false;
+                }
+                idle.addFirst(closure);
+                return true;
+            }
+        }
+    }
+
     public interface CallbackInterface extends AutoCloseable {
 
         /**
@@ -184,6 +378,28 @@ public abstract class Callback implements AutoCloseable {
             throw new UnsupportedOperationException("Callback must override this function to use the built-in callback.");
         }
 
+        /**
+         * Called from libffi when a {@code size_t (void *, size_t, size_t, void *)} callback is invoked.
+         * <p>
+         * This is only called when {@link #builtin_callback_data} is used.
+         *
+         * @return The value to return to native land.
+         */
+        default long invokeData(@NativeType ("void *") long ptr, @NativeType ("size_t") long size, @NativeType ("size_t") long nmemb, @NativeType ("void *") long userdata) throws Throwable {
+            throw new UnsupportedOperationException("Callback must override this function to use the built-in data callback.");
+        }
+
+        /**
+         * Called from libffi when a {@code int (void *, int64_t, int64_t, int64_t, int64_t)} callback is invoked.
+         * <p>
+         * This is only called when {@link #builtin_callback_progress} is used.
+         *
+         * @return The value to return to native land.
+         */
+        default int invokeProgress(@NativeType ("void *") long ptr, long a, long b, long c, long d) throws Throwable {
+            throw new UnsupportedOperationException("Callback must override this function to use the built-in progress callback.");
+        }
+
         @Override
         default void close() throws Exception { }
     }
@@ -1,12 +1,20 @@
 package net.covers1624.curl4j.core;
 
+import org.jetbrains.annotations.Nullable;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.JarURLConnection;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.URLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.jar.JarEntry;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 
 /**
  * @author covers1624
@@ -15,6 +23,8 @@ public class LibraryLoader {
 
     private static final String LIB_PATH = System.getProperty("net.covers1624.curl4j.lib_path");
     private static final boolean NO_EMBEDDED = Boolean.getBoolean("net.covers1624.curl4j.no_embedded");
+    private static final boolean NO_NATIVE_CACHE = Boolean.getBoolean("net.covers1624.curl4j.no_native_cache");
+    private static final String NATIVE_CACHE_DIR = System.getProperty("net.covers1624.curl4j.native_cache_dir");
 
     static {
         loadJNILibrary(System.getProperty("net.covers1624.curl4j.libcurl4j.name", "curl4j"));
@@ -146,6 +156,17 @@ public class LibraryLoader {
     }
 
     private static Path extract(URL url, String libName) {
+        if (!NO_NATIVE_CACHE) {
+            Path cacheDir = getNativeCacheDir();
+            if (cacheDir != null) {
+                try {
+                    return extractCached(url, libName, cacheDir);
+                } catch (IOException ignored) {
+                    // Cache is unusable (read-only, etc), just extract to a temp dir.
+                }
+            }
+        }
+
         try {
             Path tempDir = Files.createTempDirectory("libcurl4j-natives");
             tempDir.toFile().deleteOnExit();
@@ -160,4 +181,88 @@ public class LibraryLoader {
             throw new RuntimeException("Failed to extract library.", ex);
         }
     }
+
+    // Natives are extracted to '<cacheDir>/<crc32>-<size>/<libName>', so a new build of a library
+    // never collides with an old one, and an existing file only needs its size checked.
+    private static Path extractCached(URL url, String libName, Path cacheDir) throws IOException {
+        String fileName = System.mapLibraryName(libName);
+        URLConnection conn = url.openConnection();
+
+        // Jars already store the CRC of each entry, so we can find the cached library without reading it.
+        if (conn instanceof JarURLConnection) {
+            JarEntry entry = ((JarURLConnection) conn).getJarEntry();
+            if (entry != null && entry.getCrc() != -1 && entry.getSize() != -1) {
+                Path target = cacheDir.resolve(cacheKey(entry.getCrc(), entry.getSize())).resolve(fileName);
+                if (isExtracted(target, entry.getSize())) return target;
+            }
+        }
+
+        // Copy into the cache, hashing as we go, then atomically move it into place.
+        // Any process racing us will produce an identical file.
+        Files.createDirectories(cacheDir);
+        Path tmp = Files.createTempFile(cacheDir, fileName, ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            long size;
+            try (InputStream is = new CheckedInputStream(conn.getInputStream(), crc)) {
+                size = Files.copy(is, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Path target = cacheDir.resolve(cacheKey(crc.getValue(), size)).resolve(fileName);
+            if (isExtracted(target, size)) return target;
+
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException ex) {
+                // Another process beat us, and Windows won't let us replace a loaded library.
+                if (!isExtracted(target, size)) throw ex;
+            }
+            return target;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static String cacheKey(long crc, long size) {
+        return String.format("%08x-%d", crc, size);
+    }
+
+    private static boolean isExtracted(Path path, long size) {
+        try {
+            return Files.isRegularFile(path) && Files.size(path) == size;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    // A directory owned by the current user, we never want to load natives from a shared temp dir.
+    private static @Nullable Path getNativeCacheDir() {
+        if (NATIVE_CACHE_DIR != null) return Paths.get(NATIVE_CACHE_DIR);
+
+        String userHome = System.getProperty("user.home");
+        Path base;
+        switch (OperatingSystem.CURRENT) {
+            case WINDOWS: {
+                String localAppData = System.getenv("LOCALAPPDATA");
+                if (localAppData == null) return null;
+                base = Paths.get(localAppData);
+                break;
+            }
+            case MACOS:
+                if (userHome == null) return null;
+                base = Paths.get(userHome, "Library", "Caches");
+                break;
+            default: {
+                String xdgCache = System.getenv("XDG_CACHE_HOME");
+                if (xdgCache != null && !xdgCache.isEmpty()) {
+                    base = Paths.get(xdgCache);
+                } else {
+                    if (userHome == null) return null;
+                    base = Paths.get(userHome, ".cache");
+                }
+                break;
+            }
+        }
+        return base.resolve("curl4j").resolve("natives");
+    }
 }
@@ -4,6 +4,7 @@ import sun.misc.Unsafe;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 
 /**
@@ -12,6 +13,9 @@ import java.nio.ByteBuffer;
 public final class Memory {
 
     private static final Unsafe UNSAFE;
+    // Offsets of Buffer's address and capacity fields, -1 if unavailable.
+    private static final long BUFFER_ADDRESS;
+    private static final long BUFFER_CAPACITY;
 
     // 16k per stack.
     private static final ThreadLocal<Stack> STACKS = ThreadLocal.withInitial(() -> new Stack(16 * 1024));
@@ -19,6 +23,8 @@ public final class Memory {
     static {
         LibraryLoader.initialize();
         UNSAFE = getUnsafe();
+        BUFFER_ADDRESS = getFieldOffset(Buffer.class, "address", long.class);
+        BUFFER_CAPACITY = getFieldOffset(Buffer.class, "capacity", int.class);
     }
 
     /**
@@ -117,6 +123,29 @@ public final class Memory {
      */
     public static native long getDirectByteBufferAddress(ByteBuffer buffer);
 
+    /**
+     * Re-point an existing DirectByteBuffer at the given address and capacity, without allocating.
+     * <p>
+     * The buffer is cleared, its position is reset to 0 and limit set to the new capacity.
+     * <p>
+     * The buffer must have been created via {@link #newDirectByteBuffer}, buffers which own
+     * their memory must never be re-pointed. If the current JVM does not allow re-pointing
+     * buffers, a new buffer is returned instead.
+     *
+     * @param buffer   The buffer to re-point.
+     * @param address  The address.
+     * @param capacity The capacity.
+     * @return The buffer to use, either the same buffer or a new one.
+     */
+    public static ByteBuffer repointDirectByteBuffer(ByteBuffer buffer, long address, int capacity) {
+        if (BUFFER_ADDRESS == -1 || BUFFER_CAPACITY == -1) return newDirectByteBuffer(address, capacity);
+
+        UNSAFE.putLong(buffer, BUFFER_ADDRESS, address);
+        UNSAFE.putInt(buffer, BUFFER_CAPACITY, capacity);
+        buffer.clear();
+        return buffer;
+    }
+
     public static native long newGlobalRef(Object obj);
 
     public static native void deleteGlobalRef(long ref);
@@ -225,6 +254,17 @@ public final class Memory {
         }
     }
 
+    private static long getFieldOffset(Class<?> clazz, String name, Class<?> type) {
+        try {
+            Field field = clazz.getDeclaredField(name);
+            if (!field.getType().equals(type)) return -1;
+
+            return UNSAFE.objectFieldOffset(field);
+        } catch (Throwable ex) {
+            return -1;
+        }
+    }
+
     private static Unsafe getUnsafe() {
         try {
             int mod = Modifier.STATIC | Modifier.FINAL;
@@ -0,0 +1,163 @@
+package net.covers1624.curl4j.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bump allocator for native memory, released all at once.
+ * <p>
+ * Memory is allocated from fixed size chunks, these are pooled globally and re-used
+ * by the next arena. Allocations larger than a chunk are allocated on their own.
+ * Everything allocated from the arena is released when it is closed, and must not be
+ * used after.
+ * <p>
+ * Intended to hold all the small native allocations tied to a single request. Arenas
+ * are not thread safe.
+ *
+ * @author covers1624
+ */
+public final class NativeArena implements AutoCloseable {
+
+    private static final int CHUNK_SIZE = Integer.getInteger("net.covers1624.curl4j.arena_chunk_size", 16 * 1024);
+    private static final int MAX_POOLED_CHUNKS = Integer.getInteger("net.covers1624.curl4j.arena_pool_size", 64);
+    private static final int DEFAULT_ALIGNMENT = 8;
+
+    private static final ConcurrentLinkedDeque<Long> POOL = new ConcurrentLinkedDeque<>();
+    private static final AtomicInteger POOL_SIZE = new AtomicInteger();
+
+    // Chunks and large allocations owned by this arena.
+    private long[] chunks = new long[4];
+    private int nChunks;
+    private long[] large = new long[0];
+    private int nLarge;
+
+    private long chunk = Memory.NULL;
+    private int ptr = CHUNK_SIZE;
+    private boolean closed;
+
+    /**
+     * Allocate a block of memory from the arena, aligned to 8 bytes.
+     *
+     * @param size The amount of bytes to allocate.
+     * @return Pointer to the allocated block.
+     */
+    public long nmalloc(int size) {
+        return nmalloc(size, DEFAULT_ALIGNMENT);
+    }
+
+    /**
+     * Allocate a block of memory from the arena.
+     *
+     * @param size      The amount of bytes to allocate.
+     * @param alignment The alignment of the block, must be a power of 2.
+     * @return Pointer to the allocated block.
+     */
+    public long nmalloc(int size, int alignment) {
+        if (closed) throw new IllegalStateException("Arena already closed.");
+        if (size < 0) throw new IllegalArgumentException("Size must not be negative.");
+        if (Integer.bitCount(alignment) != 1) throw new IllegalArgumentException("Alignment must be a power of 2.");
+
+        if (size + alignment > CHUNK_SIZE) {
+            return addLarge(Memory.malloc(size + alignment - 1), alignment);
+        }
+
+        int aligned = align(chunk, ptr, alignment);
+        if (chunk == Memory.NULL || aligned + size > CHUNK_SIZE) {
+            chunk = addChunk(takeChunk());
+            aligned = align(chunk, 0, alignment);
+        }
+        ptr = aligned + size;
+        return chunk + aligned;
+    }
+
+    /**
+     * Create a buffer of a specific size in this arena.
+     *
+     * @param size The size.
+     * @return The buffer.
+     */
+    public ByteBuffer malloc(int size) {
+        return Memory.newDirectByteBuffer(nmalloc(size), size);
+    }
+
+    /**
+     * Allocate a single pointer in this arena.
+     *
+     * @return The pointer.
+     */
+    public Pointer mallocPointer() {
+        return new Pointer(nmalloc(NativeTypes.POINTER_SIZE, NativeTypes.POINTER_SIZE));
+    }
+
+    /**
+     * Encode a string as a null terminated UTF-8 string in this arena.
+     *
+     * @param str The string.
+     * @return Pointer to the string.
+     */
+    public long allocUtf8(String str) {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        long address = nmalloc(bytes.length + 1, 1);
+        Memory.newDirectByteBuffer(address, bytes.length + 1)
+                .put(bytes)
+                .put((byte) 0);
+        return address;
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+
+        for (int i = 0; i < nChunks; i++) {
+            returnChunk(chunks[i]);
+        }
+        for (int i = 0; i < nLarge; i++) {
+            Memory.free(large[i]);
+        }
+        chunk = Memory.NULL;
+    }
+
+    private long addChunk(long chunk) {
+        if (nChunks == chunks.length) {
+            chunks = Arrays.copyOf(chunks, nChunks * 2);
+        }
+        chunks[nChunks++] = chunk;
+        return chunk;
+    }
+
+    private long addLarge(long address, int alignment) {
+        if (nLarge == large.length) {
+            large = Arrays.copyOf(large, Math.max(4, nLarge * 2));
+        }
+        large[nLarge++] = address;
+        return address + align(address, 0, alignment);
+    }
+
+    // The offset from base, at or after offset, which is aligned.
+    private static int align(long base, int offset, int alignment) {
+        long address = base + offset;
+        return offset + (int) (-address & (alignment - 1));
+    }
+
+    private static long takeChunk() {
+        Long chunk = POOL.pollFirst();
+        if (chunk != null) {
+            POOL_SIZE.decrementAndGet();
+            return chunk;
+        }
+        return Memory.malloc(CHUNK_SIZE);
+    }
+
+    private static void returnChunk(long chunk) {
+        if (POOL_SIZE.incrementAndGet() > MAX_POOLED_CHUNKS) {
+            POOL_SIZE.decrementAndGet();
+            Memory.free(chunk);
+            return;
+        }
+        POOL.addFirst(chunk);
+    }
+}
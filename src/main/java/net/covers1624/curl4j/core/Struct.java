@@ -28,7 +28,7 @@ public class Struct {
         this.name = name;
     }
 
-    private <T> Member<T> addMember(Member<T> member) {
+    private <M extends Member<?>> M addMember(M member) {
         if (finished) throw new IllegalArgumentException("Finish has already been called.");
         for (Member<?> m : members) {
             if (m.name.equals(member.name)) {
@@ -41,7 +41,7 @@ public class Struct {
         return member;
     }
 
-    public Member<Integer> intMember(String name) {
+    public IntMember intMember(String name) {
         return addMember(new IntMember(sizeof, name));
     }
 
@@ -49,11 +49,11 @@ public class Struct {
         return addMember(new StringMember(sizeof, name));
     }
 
-    public Member<Long> longMember(String name) {
+    public LongMember longMember(String name) {
         return addMember(new CLongMember(sizeof, name));
     }
 
-    public Member<Long> sizeTMember(String name) {
+    public LongMember sizeTMember(String name) {
         return addMember(new SizeTMember(sizeof, name));
     }
 
@@ -61,7 +61,7 @@ public class Struct {
         return addMember(new StringListMember(sizeof, name));
     }
 
-    public Member<Pointer> pointerMember(String name) {
+    public PointerMember pointerMember(String name) {
         return addMember(new PointerMember(sizeof, name));
     }
 
@@ -171,37 +171,82 @@ public class Struct {
         public int alignment() { return size(); }
     }
 
-    // @formatter:off
-    private static class IntMember extends Member<Integer> {
-        private IntMember(int offset, String name) { super(offset, name); }
-        @Override public Integer read(long struct) { return Memory.getInt(struct + offset); }
-        @Override public void write(long struct, Integer value) { Memory.putInt(struct + offset, value); }
+    /**
+     * A C {@code int} member, readable without boxing.
+     */
+    public static final class IntMember extends Member<Integer> {
+
+        private IntMember(int offset, String name) {
+            super(offset, name);
+        }
+
+        // @formatter:off
+        public int readInt(Pointer pointer) { return readInt(pointer.address); }
+        public int readInt(long struct) { return Memory.getInt(struct + offset); }
+        public void writeInt(Pointer pointer, int value) { writeInt(pointer.address, value); }
+        public void writeInt(long struct, int value) { Memory.putInt(struct + offset, value); }
+        @Override public Integer read(long struct) { return readInt(struct); }
+        @Override public void write(long struct, Integer value) { writeInt(struct, value); }
         @Override public int size() { return NativeTypes.CINT_SIZE; }
+        // @formatter:on
+    }
+
+    /**
+     * An integral member read as a {@code long}, readable without boxing.
+     */
+    public static abstract class LongMember extends Member<Long> {
+
+        private LongMember(int offset, String name) {
+            super(offset, name);
+        }
+
+        // @formatter:off
+        public long readLong(Pointer pointer) { return readLong(pointer.address); }
+        public abstract long readLong(long struct);
+        public void writeLong(Pointer pointer, long value) { writeLong(pointer.address, value); }
+        public abstract void writeLong(long struct, long value);
+        @Override public Long read(long struct) { return readLong(struct); }
+        @Override public void write(long struct, Long value) { writeLong(struct, value); }
+        // @formatter:on
+    }
+
+    /**
+     * A pointer member, whose address can be read without allocating a {@link Pointer}.
+     */
+    public static final class PointerMember extends Member<Pointer> {
+
+        private PointerMember(int offset, String name) {
+            super(offset, name);
+        }
+
+        // @formatter:off
+        public long readAddress(Pointer pointer) { return readAddress(pointer.address); }
+        public long readAddress(long struct) { return Memory.getAddress(struct + offset); }
+        @Override public Pointer read(long struct) { return new Pointer(readAddress(struct)); }
+        @Override public void write(long struct, Pointer value) { Memory.putAddress(struct + offset, value.address); }
+        @Override public int size() { return NativeTypes.POINTER_SIZE; }
+        // @formatter:on
     }
+
+    // @formatter:off
     private static class StringMember extends Member<@Nullable String> {
         private StringMember(int offset, String name) { super(offset, name); }
         @Override public String read(long struct) { return Memory.readUtf8(Memory.getAddress(struct + offset)); }
         @Override public void write(long struct, String value) { throw new UnsupportedOperationException("Unable to set Strings yet."); }
         @Override public int size() { return NativeTypes.POINTER_SIZE; }
     }
-    private static class CLongMember extends Member<Long> {
+    private static class CLongMember extends LongMember {
         private CLongMember(int offset, String name) { super(offset, name); }
-        @Override public Long read(long struct) { return Memory.getCLong(struct + offset); }
-        @Override public void write(long struct, Long value) { Memory.putCLong(struct + offset, value); }
+        @Override public long readLong(long struct) { return Memory.getCLong(struct + offset); }
+        @Override public void writeLong(long struct, long value) { Memory.putCLong(struct + offset, value); }
         @Override public int size() { return NativeTypes.CLONG_SIZE; }
     }
-    private static class SizeTMember extends Member<Long> {
+    private static class SizeTMember extends LongMember {
         private SizeTMember(int offset, String name) { super(offset, name); }
-        @Override public Long read(long struct) { return Memory.getSizeT(struct + offset); }
-        @Override public void write(long struct, Long value) { Memory.putSizeT(struct + offset, value); }
+        @Override public long readLong(long struct) { return Memory.getSizeT(struct + offset); }
+        @Override public void writeLong(long struct, long value) { Memory.putSizeT(struct + offset, value); }
         @Override public int size() { return NativeTypes.SIZE_T_SIZE; }
     }
-    private static class PointerMember extends Member<Pointer> {
-        private PointerMember(int offset, String name) { super(offset, name); }
-        @Override public Pointer read(long struct) { return new Pointer(Memory.getAddress(struct + offset)); }
-        @Override public void write(long struct, Pointer value) { Memory.putAddress(struct + offset, value.address); }
-        @Override public int size() { return NativeTypes.POINTER_SIZE; }
-    }
     // @formatter:on
 
     private static class StringListMember extends Member<Set<String>> {
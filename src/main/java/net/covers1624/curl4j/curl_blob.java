@@ -21,9 +21,9 @@ public class curl_blob extends Pointer {
 
     private static final Struct STRUCT = new Struct("curl_blob");
 
-    public static final Struct.Member<Pointer> DATA = STRUCT.pointerMember("data");
-    public static final Struct.Member<Long> LEN = STRUCT.sizeTMember("len");
-    public static final Struct.Member<Integer> FLAGS = STRUCT.intMember("flags");
+    public static final Struct.PointerMember DATA = STRUCT.pointerMember("data");
+    public static final Struct.LongMember LEN = STRUCT.sizeTMember("len");
+    public static final Struct.IntMember FLAGS = STRUCT.intMember("flags");
 
     // Held onto to avoid GCing Pointer's which are managed.
     private Pointer data;
@@ -37,10 +37,10 @@ public class curl_blob extends Pointer {
     }
 
     // @formatter:off
-    public Long getLen() { return LEN.read(this); }
-    public Integer getFlags() { return FLAGS.read(this); }
-    public void setLen(Long value) { LEN.write(this, value); }
-    public void setFlags(Integer value) { FLAGS.write(this, value); }
+    public long getLen() { return LEN.readLong(address); }
+    public int getFlags() { return FLAGS.readInt(address); }
+    public void setLen(long value) { LEN.writeLong(address, value); }
+    public void setFlags(int value) { FLAGS.writeInt(address, value); }
     // @formatter:on
 
     public Pointer getData() {
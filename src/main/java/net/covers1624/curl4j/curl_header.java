@@ -0,0 +1,36 @@
+package net.covers1624.curl4j;
+
+import net.covers1624.curl4j.core.Pointer;
+import net.covers1624.curl4j.core.Struct;
+
+/**
+ * A header stored by curl, see {@link CURL#curl_easy_header} and {@link CURL#curl_easy_nextheader}.
+ * <p>
+ * Owned by curl, only valid until the next call to either function, or until the handle
+ * is reset or cleaned up.
+ *
+ * @author covers1624
+ */
+public class curl_header extends Pointer {
+
+    private static final Struct STRUCT = new Struct("curl_header");
+
+    public static final Struct.Member<String> NAME = STRUCT.stringMember("name");
+    public static final Struct.Member<String> VALUE = STRUCT.stringMember("value");
+    public static final Struct.LongMember AMOUNT = STRUCT.sizeTMember("amount");
+    public static final Struct.LongMember INDEX = STRUCT.sizeTMember("index");
+    public static final Struct.IntMember ORIGIN = STRUCT.intMember("origin");
+    // void *anchor; Private to curl.
+
+    public curl_header(long address) {
+        super(address);
+    }
+
+    // @formatter:off
+    public String name() { return NAME.read(this); }
+    public String value() { return VALUE.read(this); }
+    public long amount() { return AMOUNT.readLong(address); }
+    public long index() { return INDEX.readLong(address); }
+    public int origin() { return ORIGIN.readInt(address); }
+    // @formatter:on
+}
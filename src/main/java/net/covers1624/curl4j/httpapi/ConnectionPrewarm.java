@@ -0,0 +1,143 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.curl4j.httpapi;
+
+import net.covers1624.curl4j.util.CurlHandle;
+import net.covers1624.curl4j.util.SListHeaderWrapper;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+import static net.covers1624.curl4j.CURL.*;
+
+/**
+ * Opens connections to an origin ahead of time, in the connection caches used
+ * by later requests to the same origin.
+ * <p>
+ * Each connection performs a {@code HEAD} request. Curl never hands connections
+ * opened with {@code CURLOPT_CONNECT_ONLY} to other transfers, so a full request
+ * is the only way to leave a re-usable connection behind.
+ * <p>
+ * If the engine uses reactors, the requests are spread over the reactors, as incremental
+ * requests are, and the connections stay in the reactors' connection caches. Otherwise,
+ * each request is performed on its own pooled curl handle, one after another. Each handle
+ * keeps the connection in its own cache, and is handed out first to later requests to the origin.
+ * <p>
+ * Created by covers1624 on 18/10/26.
+ */
+final class ConnectionPrewarm {
+
+    private final Curl4jEngineRequest request;
+    private final Curl4jHttpEngine engine;
+    private final @Nullable String origin;
+    private final int connections;
+
+    ConnectionPrewarm(Curl4jEngineRequest request, Curl4jHttpEngine engine, @Nullable String origin, int connections) {
+        this.request = request;
+        this.engine = engine;
+        this.origin = origin;
+        this.connections = connections;
+    }
+
+    /**
+     * Open the connections.
+     *
+     * @return The number of new connections which were opened, existing idle connections are not counted.
+     * @throws IOException If a reactor failed.
+     */
+    int execute() throws IOException {
+        // All handles are held until every request is done, so each request gets its own handle.
+        List<HandlePool<CurlHandle>.Entry> entries = new ArrayList<>(connections);
+        try (SListHeaderWrapper headers = new SListHeaderWrapper(request.headers().toStrings())) {
+            for (int i = 0; i < connections; i++) {
+                HandlePool<CurlHandle>.Entry entry = engine.getHandle(origin);
+                entries.add(entry);
+                applyOptions(entry.handle, headers);
+            }
+            if (engine.usesReactors()) {
+                return executeReactors(entries);
+            }
+
+            int opened = 0;
+            for (HandlePool<CurlHandle>.Entry entry : entries) {
+                int result = curl_easy_perform(entry.handle.curl);
+                opened += completed(entry.handle, result);
+            }
+            return opened;
+        } finally {
+            for (HandlePool<CurlHandle>.Entry entry : entries) {
+                entry.close();
+            }
+        }
+    }
+
+    private int executeReactors(List<HandlePool<CurlHandle>.Entry> entries) throws IOException {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>(entries.size());
+        List<Runnable> cancels = new ArrayList<>(entries.size());
+        try {
+            for (HandlePool<CurlHandle>.Entry entry : entries) {
+                MultiReactor reactor = engine.nextReactor();
+                assert reactor != null;
+
+                CompletableFuture<Integer> future = new CompletableFuture<>();
+                long curl = entry.handle.curl;
+                MultiReactor.Transfer transfer = new MultiReactor.Transfer() {
+                    @Override
+                    public void onDone(int result) {
+                        future.complete(completed(entry.handle, result));
+                    }
+
+                    @Override
+                    public void onError(Curl4jHttpException ex) {
+                        future.completeExceptionally(ex);
+                    }
+                };
+                futures.add(future);
+                cancels.add(() -> reactor.cancel(curl, transfer));
+                reactor.add(curl, transfer);
+            }
+
+            int opened = 0;
+            for (CompletableFuture<Integer> future : futures) {
+                opened += future.get();
+            }
+            return opened;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted whilst opening connections.");
+        } catch (ExecutionException ex) {
+            throw new Curl4jHttpException("Failed to open connections.", ex.getCause());
+        } finally {
+            // The handles go back to the pool after this, they must be detached first.
+            for (int i = 0; i < futures.size(); i++) {
+                if (!futures.get(i).isDone()) {
+                    cancels.get(i).run();
+                    futures.get(i).handle((r, ex) -> null).join();
+                }
+            }
+        }
+    }
+
+    // Returns the number of connections the transfer opened.
+    private int completed(CurlHandle handle, int result) {
+        engine.transferCompleted(handle, result);
+        if (result != CURLE_OK) return 0;
+
+        return (int) curl_easy_getinfo_long(handle.curl, CURLINFO_NUM_CONNECTS);
+    }
+
+    private void applyOptions(CurlHandle handle, SListHeaderWrapper headers) throws IOException {
+        request.setupHandle(handle);
+        headers.apply(handle);
+        for (Consumer<CurlHandle> customOption : request.customOptions()) {
+            customOption.accept(handle);
+        }
+    }
+}
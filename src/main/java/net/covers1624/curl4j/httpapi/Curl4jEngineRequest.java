@@ -6,6 +6,7 @@ package net.covers1624.curl4j.httpapi;
 import net.covers1624.curl4j.CABundle;
 import net.covers1624.curl4j.CURL;
 import net.covers1624.curl4j.CurlXferInfoCallback;
+import net.covers1624.curl4j.core.NativeArena;
 import net.covers1624.curl4j.util.*;
 import net.covers1624.curl4j.util.CurlMimeBody.Builder.PartBuilder;
 import net.covers1624.quack.annotation.Requires;
@@ -14,11 +15,16 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 import static net.covers1624.curl4j.CURL.*;
@@ -34,13 +40,19 @@ public class Curl4jEngineRequest extends AbstractEngineRequest {
     private final List<Consumer<CurlHandle>> customOptions = new LinkedList<>();
 
     private boolean followRedirects = true;
+    private int segments = 1;
+    private boolean resumable;
     private @Nullable Path destFile;
     private @Nullable String unixSocket;
     private @Nullable CABundle caBundle;
+    private int httpVersion = CURL_HTTP_VERSION_NONE;
 
     private @Nullable String method;
     private @Nullable WebBody body;
 
+    private @Nullable CurlOptionBatch options;
+    private @Nullable String origin;
+
     public Curl4jEngineRequest(Curl4jHttpEngine engine) {
         this.engine = engine;
     }
@@ -82,6 +94,50 @@ public class Curl4jEngineRequest extends AbstractEngineRequest {
         return this;
     }
 
+    /**
+     * Download the file over multiple connections in parallel.
+     * <p>
+     * Only applies to {@code GET} requests without a body, which store their body in a file
+     * via {@link #useFileOutput(Path)}. The server is first probed with a {@code HEAD} request,
+     * if it reports a {@code Content-Length} and {@code Accept-Ranges: bytes}, the file is split
+     * into byte ranges, each downloaded on its own connection. Otherwise, the file is downloaded
+     * normally over a single connection.
+     * <p>
+     * Small files are split into fewer segments. Segmented downloads are only performed by
+     * {@link #execute()}.
+     *
+     * @param segments The maximum number of segments to split the download into.
+     * @return The same request.
+     */
+    public Curl4jEngineRequest segmentedDownload(int segments) {
+        assertState();
+        if (segments < 1) throw new IllegalArgumentException("Segments must be at least 1.");
+        this.segments = segments;
+        return this;
+    }
+
+    /**
+     * Make the download resumable.
+     * <p>
+     * Only applies to {@code GET} requests without a body, which store their body in a file
+     * via {@link #useFileOutput(Path)}. Progress is periodically recorded in a journal next
+     * to the file ({@code <file>.resume}). If a previous attempt was interrupted, the download
+     * continues from the last recorded offset, provided the server still has the same version
+     * of the file, otherwise the file is downloaded again from the start.
+     * <p>
+     * Responses other than {@code 200}, or {@code 206} when resuming, fail the request with a
+     * {@link Curl4jHttpException}, leaving the partial file and journal untouched for the next attempt.
+     * <p>
+     * Resumable downloads take priority over {@link #segmentedDownload(int)}.
+     *
+     * @return The same request.
+     */
+    public Curl4jEngineRequest resumable() {
+        assertState();
+        resumable = true;
+        return this;
+    }
+
     /**
      * Set the {@link CURL#CURLOPT_UNIX_SOCKET_PATH} option.
      *
@@ -104,6 +160,19 @@ public class Curl4jEngineRequest extends AbstractEngineRequest {
         return this;
     }
 
+    /**
+     * Set the {@link CURL#CURLOPT_HTTP_VERSION} option, overriding the engine's default.
+     *
+     * @param httpVersion One of the {@code CURL_HTTP_VERSION_*} constants.
+     *                    {@link CURL#CURL_HTTP_VERSION_NONE} to use the engine's default.
+     * @return The same request.
+     */
+    public Curl4jEngineRequest httpVersion(int httpVersion) {
+        assertState();
+        this.httpVersion = httpVersion;
+        return this;
+    }
+
     /**
      * Provide custom configuration to curl.
      * <p>
@@ -141,6 +210,8 @@ public class Curl4jEngineRequest extends AbstractEngineRequest {
 
         if (url == null) throw new IllegalStateException("Url not set.");
         executed = true;
+        String origin = originKey(url, unixSocket);
+        this.origin = origin;
 
         if (listener != null) {
             listener.start(body != null ? RequestListener.Direction.UPLOAD : RequestListener.Direction.DOWNLOAD);
@@ -149,79 +220,220 @@ public class Curl4jEngineRequest extends AbstractEngineRequest {
         // If we are not writing into a file, we must take the incremental path
         // to give the user control over where the data is going.
         if (destFile == null) {
-            HandlePool<CurlMultiHandle>.Entry handleEntry = engine.getMultiHandle();
+            MultiReactor reactor = engine.nextReactor();
+            if (reactor != null) {
+                HandlePool<CurlHandle>.Entry handleEntry = engine.getHandle(origin);
+                setupHandle(handleEntry.handle);
+                return new IncrementalCurl4jResponse(this, handleEntry, reactor);
+            }
+
+            HandlePool<CurlMultiHandle>.Entry handleEntry = engine.getMultiHandle(origin);
             setupHandle(handleEntry.handle);
             return new IncrementalCurl4jResponse(this, handleEntry);
         }
 
-        HandlePool<CurlHandle>.Entry handleEntry = engine.getHandle();
+        if (segments > 1 && !resumable && isPlainGet()) {
+            Curl4jEngineResponse response = executeSegmented(origin, destFile);
+            if (response != null) return response;
+        }
+
+        HandlePool<CurlHandle>.Entry handleEntry = engine.getHandle(origin);
         CurlHandle handle = handleEntry.handle;
 
         setupHandle(handle);
 
         // Files get a hot path, we don't curl_multi it, just blast it right to the file.
         try (HandlePool<CurlHandle>.Entry ignored = handleEntry;
-             CurlOutput output = CurlOutput.toFile(destFile);
+             NativeArena arena = new NativeArena();
+             HeaderCollector headerCollector = makeHeaderCollector();
+             CurlOutput output = makeFileOutput(destFile, headerCollector);
              CurlInput input = makeInput();
              CurlMimeBody mimeBody = buildMime(handle);
-             SListHeaderWrapper headers = new SListHeaderWrapper(this.headers.toStrings());
-             HeaderCollector headerCollector = new HeaderCollector();
+             SListHeaderWrapper headers = makeFileHeaders(output, arena);
              CurlXferInfoCallback xferCallback = xferCallback(listener)) {
 
-            output.apply(handle);
-            headerCollector.apply(handle);
+            applyFileOptions(handle, output, input, mimeBody, headers, headerCollector, xferCallback);
+
+            int result = curl_easy_perform(handle.curl);
+            engine.transferCompleted(handle, result);
+            if (result != CURLE_OK) {
+                throw new IOException("Curl returned error: " + handle.errorBuffer + "(" + curl_easy_strerror(result) + ")");
+            }
 
-            if (input != null) {
-                input.apply(handle);
-            } else if (mimeBody != null) {
-                mimeBody.apply(handle);
+            completeFileOutput(handle, output);
+            return fileResponse(handle, headerCollector, destFile);
+        } finally {
+            if (listener != null) {
+                listener.end();
             }
+        }
+    }
+
+    /**
+     * Execute this request asynchronously.
+     * <p>
+     * The transfer is driven by one of the engine's reactor threads. If the engine was not
+     * configured with reactors, a single engine owned reactor is created on first use.
+     * <p>
+     * For incremental responses, the returned future completes once the headers of the final
+     * response have arrived, or the transfer fails. The body is then read from the response as
+     * usual, reads block the calling thread until the reactor has delivered more data. For file
+     * responses, it completes once the file has been fully written.
+     * <p>
+     * Cancelling the future before it completes aborts the transfer, and releases its resources.
+     * <p>
+     * The future is completed on the reactor thread. Dependent stages which perform blocking
+     * reads of the response body must be run on another thread, e.g. via {@code thenApplyAsync}.
+     *
+     * @return The future response.
+     */
+    public CompletableFuture<Curl4jEngineResponse> executeAsync() {
+        assertState();
+
+        if (url == null) throw new IllegalStateException("Url not set.");
+        executed = true;
+        String origin = originKey(url, unixSocket);
+        this.origin = origin;
 
-            headers.apply(handle);
+        MultiReactor reactor = engine.asyncReactor();
+        if (listener != null) {
+            listener.start(body != null ? RequestListener.Direction.UPLOAD : RequestListener.Direction.DOWNLOAD);
+        }
 
-            if (caBundle != null) {
-                caBundle.apply(handle);
+        CompletableFuture<Curl4jEngineResponse> future = new CompletableFuture<>();
+        HandlePool<CurlHandle>.Entry handleEntry = engine.getHandle(origin);
+        try {
+            setupHandle(handleEntry.handle);
+        } catch (Throwable ex) {
+            handleEntry.close();
+            if (listener != null) {
+                listener.end();
             }
+            future.completeExceptionally(ex);
+            return future;
+        }
 
-            if (xferCallback != null) {
-                curl_easy_setopt(handle.curl, CURLOPT_NOPROGRESS, false);
-                curl_easy_setopt(handle.curl, CURLOPT_XFERINFOFUNCTION, xferCallback);
+        if (destFile == null) {
+            try {
+                return IncrementalCurl4jResponse.executeAsync(this, handleEntry, reactor);
+            } catch (Throwable ex) {
+                // The response has already released everything, including the handle.
+                future.completeExceptionally(ex);
+                return future;
             }
+        }
 
-            for (Consumer<CurlHandle> customOption : customOptions) {
-                customOption.accept(handle);
+        AsyncFileTransfer transfer;
+        try {
+            transfer = new AsyncFileTransfer(handleEntry, destFile, future);
+        } catch (Throwable ex) {
+            // The transfer has already failed the future, and released everything.
+            return future;
+        }
+        try {
+            transfer.apply();
+        } catch (Throwable ex) {
+            transfer.fail(ex);
+            return future;
+        }
+        long curl = handleEntry.handle.curl;
+        reactor.add(curl, transfer);
+        future.whenComplete((r, ex) -> {
+            if (future.isCancelled()) {
+                reactor.cancel(curl, transfer);
             }
+        });
+        return future;
+    }
 
-            int result = curl_easy_perform(handle.curl);
-            if (result != CURLE_OK) {
-                throw new IOException("Curl returned error: " + handle.errorBuffer + "(" + curl_easy_strerror(result) + ")");
+    /**
+     * Open connections to this request's origin, see {@link Curl4jHttpEngine#prewarm}.
+     *
+     * @param connections The number of connections to open.
+     * @return The number of new connections which were opened.
+     */
+    int executePrewarm(int connections) throws IOException {
+        assertState();
+
+        if (url == null) throw new IllegalStateException("Url not set.");
+        executed = true;
+        return new ConnectionPrewarm(this, engine, originKey(url, unixSocket), connections).execute();
+    }
+
+    // Key used to route requests to handles which last talked to the same origin.
+    static @Nullable String originKey(String url, @Nullable String unixSocket) {
+        try {
+            URI uri = new URI(url);
+            String scheme = uri.getScheme();
+            String host = uri.getHost();
+            if (scheme == null || host == null) return null;
+
+            scheme = scheme.toLowerCase(Locale.ROOT);
+            int port = uri.getPort();
+            if (port == -1) {
+                port = scheme.equals("https") ? 443 : scheme.equals("http") ? 80 : -1;
             }
+            String key = scheme + "://" + host.toLowerCase(Locale.ROOT) + ":" + port;
+            return unixSocket != null ? key + "@" + unixSocket : key;
+        } catch (URISyntaxException ex) {
+            return null;
+        }
+    }
 
-            HeaderList responseHeaders = new HeaderList();
-            responseHeaders.addAllMulti(headerCollector.getHeaders());
-
-            long responseCode = curl_easy_getinfo_long(handle.curl, CURLINFO_RESPONSE_CODE);
-            String contentType = responseHeaders.get("Content-Type");
-            WebBody respBody = new WebBody.PathBody(destFile, contentType);
-            return new Curl4jEngineResponse() {
-                // @formatter:off
-                @Override public Curl4jEngineRequest request() { return Curl4jEngineRequest.this; }
-                @Override public int statusCode() { return (int) responseCode; }
-                @Override public String message() { return ""; }
-                @Override public HeaderList headers() { return responseHeaders; }
-                @Override public WebBody body() { return respBody; }
-                @Override public void close() { }
-                // @formatter:on
-            };
-        } finally {
+    // Only plain GET requests can be split or resumed.
+    private boolean isPlainGet() {
+        return body == null && "GET".equals(method);
+    }
+
+    HeaderCollector makeHeaderCollector() {
+        return new HeaderCollector(engine.useCurlHeaders());
+    }
+
+    private CurlOutput makeFileOutput(Path destFile, HeaderCollector headerCollector) {
+        if (resumable && isPlainGet()) {
+            assert url != null;
+            return ResumableFileOutput.create(url, destFile, headerCollector);
+        }
+        return CurlOutput.toFile(destFile);
+    }
+
+    private SListHeaderWrapper makeFileHeaders(CurlOutput output, NativeArena arena) {
+        List<String> headers = new ArrayList<>(this.headers.toStrings());
+        if (output instanceof ResumableFileOutput) {
+            // Only resume if the server still has the same version of the file.
+            String ifRange = ((ResumableFileOutput) output).ifRange();
+            if (ifRange != null) {
+                headers.add("If-Range: " + ifRange);
+            }
+        }
+        return new SListHeaderWrapper(headers, arena);
+    }
+
+    private static void completeFileOutput(CurlHandle handle, CurlOutput output) throws IOException {
+        if (!(output instanceof ResumableFileOutput)) return;
+
+        long responseCode = curl_easy_getinfo_long(handle.curl, CURLINFO_RESPONSE_CODE);
+        ((ResumableFileOutput) output).complete(responseCode);
+    }
+
+    // Returns null if the server does not support segmented downloads.
+    private @Nullable Curl4jEngineResponse executeSegmented(@Nullable String origin, Path destFile) throws IOException {
+        Curl4jEngineResponse response;
+        try {
+            response = new SegmentedDownload(this, engine, origin, destFile, segments).execute();
+        } catch (Throwable ex) {
             if (listener != null) {
                 listener.end();
             }
+            throw ex;
         }
+        if (response != null && listener != null) {
+            listener.end();
+        }
+        return response;
     }
 
-    private void setupHandle(CurlHandle handle) {
-        assert method != null;
+    void setupHandle(CurlHandle handle) {
         curl_easy_reset(handle.curl);
 
         String impersonate = engine.getImpersonate();
@@ -229,19 +441,45 @@ public class Curl4jEngineRequest extends AbstractEngineRequest {
             curl_easy_impersonate(handle.curl, impersonate, true);
         }
 
-        curl_easy_setopt(handle.curl, CURLOPT_URL, url);
+        if (options == null) {
+            options = buildOptions();
+        }
+        options.applyTo(handle.curl);
+    }
+
+    // Built once, and applied in one go to every handle used by this request.
+    private CurlOptionBatch buildOptions() {
+        assert method != null;
+        CurlOptionBatch options = new CurlOptionBatch();
+        options.set(CURLOPT_SHARE, engine.getShare().share);
+        options.set(CURLOPT_URL, url);
         if (method.equals("HEAD")) {
-            curl_easy_setopt(handle.curl, CURLOPT_NOBODY, true);
+            options.set(CURLOPT_NOBODY, true);
         } else {
-            curl_easy_setopt(handle.curl, CURLOPT_CUSTOMREQUEST, method);
+            options.set(CURLOPT_CUSTOMREQUEST, method);
         }
 
         if (followRedirects) {
-            curl_easy_setopt(handle.curl, CURLOPT_FOLLOWLOCATION, true);
+            options.set(CURLOPT_FOLLOWLOCATION, true);
         }
 
         if (unixSocket != null) {
-            curl_easy_setopt(handle.curl, CURLOPT_UNIX_SOCKET_PATH, unixSocket);
+            options.set(CURLOPT_UNIX_SOCKET_PATH, unixSocket);
+        }
+
+        if (caBundle != null) {
+            applyCABundle(options, caBundle);
+        }
+
+        int httpVersion = this.httpVersion != CURL_HTTP_VERSION_NONE ? this.httpVersion : engine.httpVersion();
+        if (httpVersion != CURL_HTTP_VERSION_NONE) {
+            options.set(CURLOPT_HTTP_VERSION, httpVersion);
+        }
+
+        // Wait for an existing connection to the origin to confirm it can multiplex, instead of opening another.
+        // Segments are supposed to use their own connections.
+        if (engine.multiplex() && segments == 1) {
+            options.set(CURLOPT_PIPEWAIT, true);
         }
 
         if (body != null && !(body instanceof MultipartBody)) {
@@ -250,16 +488,94 @@ public class Curl4jEngineRequest extends AbstractEngineRequest {
                 headers.add("Content-Type", contentType);
             }
         }
+        return options;
     }
 
-    HeaderList headers() {
-        return headers;
+    private void applyCABundle(CurlOptionBatch options, CABundle caBundle) {
+        long timeout = engine.caCacheTimeout();
+        if (timeout > 0) {
+            try {
+                // Curl only caches its CA store for bundles given as a file, and without a CA path.
+                String file = caBundle.getCAFile().toString();
+                options.set(CURLOPT_CAINFO, file);
+                options.set(CURLOPT_PROXY_CAINFO, file);
+                options.set(CURLOPT_CAPATH, (String) null);
+                options.set(CURLOPT_CA_CACHE_TIMEOUT, timeout);
+                return;
+            } catch (IOException ignored) {
+                // Can't write the bundle out, fall back to the blob.
+            }
+        }
+        options.set(CURLOPT_CAINFO_BLOB, caBundle.getCABlob());
+        options.set(CURLOPT_PROXY_CAINFO_BLOB, caBundle.getCABlob());
     }
 
-    @Nullable
-    @Contract (pure = true)
-    CABundle caBundle() {
-        return caBundle;
+    private void applyFileOptions(CurlHandle handle, CurlOutput output, @Nullable CurlInput input, @Nullable CurlMimeBody mimeBody, SListHeaderWrapper headers, HeaderCollector headerCollector, @Nullable CurlXferInfoCallback xferCallback) throws IOException {
+        output.apply(handle);
+        headerCollector.apply(handle);
+
+        if (input != null) {
+            input.apply(handle);
+        } else if (mimeBody != null) {
+            mimeBody.apply(handle);
+        }
+
+        headers.apply(handle);
+
+        if (xferCallback != null) {
+            curl_easy_setopt(handle.curl, CURLOPT_NOPROGRESS, false);
+            curl_easy_setopt(handle.curl, CURLOPT_XFERINFOFUNCTION, xferCallback);
+        }
+
+        for (Consumer<CurlHandle> customOption : customOptions) {
+            customOption.accept(handle);
+        }
+    }
+
+    private Curl4jEngineResponse fileResponse(CurlHandle handle, HeaderCollector headerCollector, Path destFile) {
+        HeaderList responseHeaders = new HeaderList();
+        headerCollector.forEach(responseHeaders::add);
+
+        long responseCode = curl_easy_getinfo_long(handle.curl, CURLINFO_RESPONSE_CODE);
+        Curl4jEngineResponse response = fileResponse((int) responseCode, responseHeaders, destFile);
+        response.setTransferStats(captureStats(handle));
+        return response;
+    }
+
+    Curl4jEngineResponse fileResponse(int responseCode, HeaderList responseHeaders, Path destFile) {
+        String contentType = responseHeaders.get("Content-Type");
+        WebBody respBody = new WebBody.PathBody(destFile, contentType);
+        return new Curl4jEngineResponse() {
+            // @formatter:off
+            @Override public Curl4jEngineRequest request() { return Curl4jEngineRequest.this; }
+            @Override public int statusCode() { return responseCode; }
+            @Override public String message() { return ""; }
+            @Override public HeaderList headers() { return responseHeaders; }
+            @Override public WebBody body() { return respBody; }
+            @Override public void close() { }
+            // @formatter:on
+        };
+    }
+
+    // Called once the transfer on the handle has completed successfully.
+    @Nullable TransferStats captureStats(CurlHandle handle) {
+        if (!engine.captureTransferStats()) return null;
+
+        TransferStats stats = TransferStats.capture(handle.curl);
+        engine.recordStats(origin, stats);
+        return stats;
+    }
+
+    Curl4jHttpEngine engine() {
+        return engine;
+    }
+
+    boolean followsRedirects() {
+        return followRedirects;
+    }
+
+    HeaderList headers() {
+        return headers;
     }
 
     @Nullable
@@ -316,4 +632,96 @@ public class Curl4jEngineRequest extends AbstractEngineRequest {
             }
         };
     }
+
+    // A file transfer driven by a reactor, owns all native resources until the transfer completes.
+    private final class AsyncFileTransfer implements MultiReactor.Transfer {
+
+        private final HandlePool<CurlHandle>.Entry handleEntry;
+        private final Path destFile;
+        private final CompletableFuture<Curl4jEngineResponse> future;
+
+        private final NativeArena arena = new NativeArena();
+        private final CurlOutput output;
+        private final @Nullable CurlInput input;
+        private final @Nullable CurlMimeBody mimeBody;
+        private final SListHeaderWrapper headers;
+        private final HeaderCollector headerCollector = makeHeaderCollector();
+        private final @Nullable CurlXferInfoCallback xferCallback;
+
+        private AsyncFileTransfer(HandlePool<CurlHandle>.Entry handleEntry, Path destFile, CompletableFuture<Curl4jEngineResponse> future) {
+            this.handleEntry = handleEntry;
+            this.destFile = destFile;
+            this.future = future;
+
+            CurlHandle handle = handleEntry.handle;
+            try {
+                output = makeFileOutput(destFile, headerCollector);
+                input = makeInput();
+                mimeBody = buildMime(handle);
+                headers = makeFileHeaders(output, arena);
+                xferCallback = xferCallback(listener);
+            } catch (Throwable ex) {
+                fail(ex);
+                throw ex;
+            }
+        }
+
+        private void apply() throws IOException {
+            applyFileOptions(handleEntry.handle, output, input, mimeBody, headers, headerCollector, xferCallback);
+        }
+
+        @Override
+        public void onDone(int result) {
+            CurlHandle handle = handleEntry.handle;
+            engine.transferCompleted(handle, result);
+            if (result != CURLE_OK) {
+                fail(new IOException("Curl returned error: " + handle.errorBuffer + "(" + curl_easy_strerror(result) + ")"));
+                return;
+            }
+            Curl4jEngineResponse response;
+            try {
+                completeFileOutput(handle, output);
+                response = fileResponse(handle, headerCollector, destFile);
+            } catch (Throwable ex) {
+                fail(ex);
+                return;
+            }
+            try {
+                finish();
+            } catch (Throwable ex) {
+                future.completeExceptionally(ex);
+                return;
+            }
+            future.complete(response);
+        }
+
+        @Override
+        public void onError(Curl4jHttpException ex) {
+            fail(ex);
+        }
+
+        private void fail(Throwable ex) {
+            try {
+                finish();
+            } catch (Throwable ex2) {
+                ex.addSuppressed(ex2);
+            }
+            future.completeExceptionally(ex);
+        }
+
+        private void finish() throws Exception {
+            try (HandlePool<CurlHandle>.Entry ignored = handleEntry;
+                 NativeArena ignored7 = arena;
+                 CurlOutput ignored1 = output;
+                 CurlInput ignored2 = input;
+                 CurlMimeBody ignored3 = mimeBody;
+                 SListHeaderWrapper ignored4 = headers;
+                 HeaderCollector ignored5 = headerCollector;
+                 CurlXferInfoCallback ignored6 = xferCallback) {
+                if (listener != null) {
+                    listener.end();
+                }
+            }
+        }
+    }
 }
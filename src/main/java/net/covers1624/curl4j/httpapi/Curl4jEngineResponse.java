@@ -5,6 +5,7 @@ package net.covers1624.curl4j.httpapi;
 
 import net.covers1624.quack.annotation.Requires;
 import net.covers1624.quack.net.httpapi.EngineResponse;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Created by covers1624 on 1/11/23.
@@ -12,6 +13,26 @@ import net.covers1624.quack.net.httpapi.EngineResponse;
 @Requires (value = "net.covers1624:Quack", minVersion = "0.4.111")
 public abstract class Curl4jEngineResponse implements EngineResponse {
 
+    private volatile @Nullable TransferStats transferStats;
+
     @Override
     public abstract Curl4jEngineRequest request();
+
+    /**
+     * Get the timings and connection details of the transfer.
+     * <p>
+     * Only available if enabled via {@link Curl4jHttpEngine.Builder#transferStats(boolean)}, or
+     * {@link Curl4jHttpEngine.Builder#originStats(boolean)}, and once the transfer has completed.
+     * For incremental responses, this is once the body has been fully read. Segmented downloads
+     * do not provide stats.
+     *
+     * @return The stats, or {@code null} if not available.
+     */
+    public @Nullable TransferStats transferStats() {
+        return transferStats;
+    }
+
+    void setTransferStats(@Nullable TransferStats transferStats) {
+        this.transferStats = transferStats;
+    }
 }
@@ -7,10 +7,20 @@ import net.covers1624.curl4j.CABundle;
 import net.covers1624.curl4j.CURL;
 import net.covers1624.curl4j.util.CurlHandle;
 import net.covers1624.curl4j.util.CurlMultiHandle;
+import net.covers1624.curl4j.util.CurlShareHandle;
 import net.covers1624.quack.annotation.Requires;
 import net.covers1624.quack.net.httpapi.HttpEngine;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Created by covers1624 on 1/11/23.
  */
@@ -18,12 +28,25 @@ import org.jetbrains.annotations.Nullable;
 public class Curl4jHttpEngine implements HttpEngine, AutoCloseable {
 
     private static boolean CURL_GLOBAL_INIT = false;
+    private static final int[] TRANSFER_INFOS = { CURL.CURLINFO_SIZE_DOWNLOAD_T, CURL.CURLINFO_SIZE_UPLOAD_T };
 
-    private final HandlePool<CurlHandle> CURL_HANDLES = new HandlePool<>(CurlHandle::create);
-    private final HandlePool<CurlMultiHandle> MULTI_HANDLES = new HandlePool<>(CurlMultiHandle::createMulti);
+    private final HandlePool<CurlHandle> CURL_HANDLES;
+    private final HandlePool<CurlMultiHandle> MULTI_HANDLES;
 
     private final @Nullable CABundle caBundle;
     public final @Nullable String impersonate;
+    private final CurlShareHandle share;
+    private final MultiReactor @Nullable [] reactors;
+    private final boolean curlHeaders;
+    private final long caCacheTimeout;
+    private final int httpVersion;
+    private final boolean multiplex;
+    private final boolean transferStats;
+    private final @Nullable ConcurrentMap<String, OriginStats> originStats;
+    private final EngineMetrics metrics;
+    private final AtomicInteger nextReactor = new AtomicInteger();
+    // Lazily created to drive async requests when reactors are not enabled.
+    private @Nullable MultiReactor asyncReactor;
 
     private boolean closed = false;
 
@@ -40,8 +63,22 @@ public class Curl4jHttpEngine implements HttpEngine, AutoCloseable {
     }
 
     public Curl4jHttpEngine(@Nullable CABundle caBundle, @Nullable String impersonate) {
+        this(caBundle, impersonate, 0, false, 0, CURL.CURL_HTTP_VERSION_NONE, true, false, false, EngineMetrics.NONE);
+    }
+
+    private Curl4jHttpEngine(@Nullable CABundle caBundle, @Nullable String impersonate, int reactorThreads, boolean curlHeaders, long caCacheTimeout, int httpVersion, boolean multiplex, boolean transferStats, boolean originStats, EngineMetrics metrics) {
         this.caBundle = caBundle;
         this.impersonate = impersonate;
+        this.curlHeaders = curlHeaders;
+        this.caCacheTimeout = caCacheTimeout;
+        this.httpVersion = httpVersion;
+        this.multiplex = multiplex;
+        // Origin stats are aggregated from the stats of each transfer.
+        this.transferStats = transferStats || originStats;
+        this.originStats = originStats ? new ConcurrentHashMap<>() : null;
+        this.metrics = metrics;
+        CURL_HANDLES = new HandlePool<>(this::newHandle, metrics, EngineMetrics.HandleType.EASY);
+        MULTI_HANDLES = new HandlePool<>(this::newMultiHandle, metrics, EngineMetrics.HandleType.MULTI);
         if (!CURL.isCurlImpersonateSupported() && impersonate != null) {
             throw new IllegalArgumentException("Current CURL instance does not support impersonation.");
         }
@@ -52,6 +89,32 @@ public class Curl4jHttpEngine implements HttpEngine, AutoCloseable {
                 CURL_GLOBAL_INIT = true;
             }
         }
+
+        // Share DNS and TLS sessions between all handles owned by this engine.
+        // Older curl versions may not support sharing everything, we just skip those.
+        // Connections are not shared, curl does not support using a shared connection
+        // cache from multiple threads at once, each handle keeps its own instead.
+        share = new CurlShareHandle();
+        share.share(CURL.CURL_LOCK_DATA_DNS);
+        share.share(CURL.CURL_LOCK_DATA_SSL_SESSION);
+
+        if (reactorThreads > 0) {
+            reactors = new MultiReactor[reactorThreads];
+            for (int i = 0; i < reactorThreads; i++) {
+                reactors[i] = new MultiReactor("Curl4j Multi Reactor #" + i, multiplex);
+            }
+        } else {
+            reactors = null;
+        }
+    }
+
+    /**
+     * Create a new {@link Builder} for constructing an engine.
+     *
+     * @return The builder.
+     */
+    public static Builder builder() {
+        return new Builder();
     }
 
     @Override
@@ -61,25 +124,430 @@ public class Curl4jHttpEngine implements HttpEngine, AutoCloseable {
         return new Curl4jEngineRequest(this).useCABundle(caBundle);
     }
 
+    /**
+     * Open connections to the given origin ahead of time.
+     * <p>
+     * If this engine uses {@link Builder#reactorThreads reactors}, the connections are opened
+     * through the reactors, and are picked up by later streamed and async requests to the origin.
+     * Otherwise, each connection is opened on its own pooled curl handle, one after another. Later
+     * file downloads to the origin are handed those handles first, so up to {@code connections}
+     * concurrent downloads skip the TCP and TLS handshakes. Other requests use their own
+     * connections, but still benefit from the engine's shared DNS cache and TLS sessions.
+     * <p>
+     * Each connection performs a {@code HEAD} request to the origin, as curl does not re-use
+     * connections which only connected. Blocks until all connections have been opened, or failed.
+     * <p>
+     * Curl closes connections which have been idle for longer than {@link CURL#CURLOPT_MAXAGE_CONN}
+     * (118 seconds by default). To keep connections warm over idle periods, call this
+     * periodically at a shorter interval.
+     *
+     * @param origin      The origin, e.g. {@code https://example.com}.
+     * @param connections The number of connections to open.
+     * @return The number of new connections which were opened. Idle connections which were
+     * already warm are re-used, and not counted.
+     * @throws IOException If curl failed.
+     */
+    public int prewarm(String origin, int connections) throws IOException {
+        if (connections < 1) throw new IllegalArgumentException("Connections must be at least 1.");
+
+        return newRequest()
+                .method("HEAD", null)
+                .url(origin)
+                .executePrewarm(connections);
+    }
+
+    /**
+     * Get the aggregated latencies of all transfers to the given origin.
+     * <p>
+     * Only available if enabled via {@link Builder#originStats(boolean)}.
+     *
+     * @param origin The origin, e.g. {@code https://example.com}.
+     * @return The stats, or {@code null} if there have been no transfers to the origin.
+     */
+    public @Nullable OriginStats getOriginStats(String origin) {
+        if (originStats == null) return null;
+
+        String key = Curl4jEngineRequest.originKey(origin, null);
+        return key != null ? originStats.get(key) : null;
+    }
+
+    /**
+     * Get the aggregated latencies of all transfers, by origin.
+     * <p>
+     * Only available if enabled via {@link Builder#originStats(boolean)}. Origins are keyed
+     * as {@code scheme://host:port}.
+     *
+     * @return An unmodifiable live view of the stats.
+     */
+    public Map<String, OriginStats> getOriginStats() {
+        if (originStats == null) return Collections.emptyMap();
+
+        return Collections.unmodifiableMap(originStats);
+    }
+
     /**
      * Optionally close this engine and release all resources.
      */
     @Override
     public void close() {
+        closed = true;
+        if (reactors != null) {
+            for (MultiReactor reactor : reactors) {
+                reactor.close();
+            }
+        }
+        synchronized (this) {
+            if (asyncReactor != null) {
+                asyncReactor.close();
+            }
+        }
         CURL_HANDLES.close();
         MULTI_HANDLES.close();
-        closed = true;
+        // If some responses are still open, the share is freed once their handles are cleaned up.
+        share.close();
+    }
+
+    private CurlHandle newHandle() {
+        share.retain();
+        return new SharedCurlHandle(share);
+    }
+
+    // Self driven responses run their transfer on the multi handle's own easy handle, which also uses the share.
+    private CurlMultiHandle newMultiHandle() {
+        share.retain();
+        return new SharedCurlMultiHandle(share);
+    }
+
+    CurlShareHandle getShare() {
+        return share;
     }
 
     @Nullable String getImpersonate() {
         return impersonate;
     }
 
-    HandlePool<CurlHandle>.Entry getHandle() {
-        return CURL_HANDLES.get();
+    boolean useCurlHeaders() {
+        return curlHeaders;
+    }
+
+    long caCacheTimeout() {
+        return caCacheTimeout;
+    }
+
+    int httpVersion() {
+        return httpVersion;
+    }
+
+    boolean multiplex() {
+        return multiplex;
+    }
+
+    EngineMetrics metrics() {
+        return metrics;
     }
 
-    HandlePool<CurlMultiHandle>.Entry getMultiHandle() {
-        return MULTI_HANDLES.get();
+    boolean captureTransferStats() {
+        return transferStats;
+    }
+
+    // Called once a transfer on the handle has completed, before the handle is released.
+    void transferCompleted(CurlHandle handle, int result) {
+        if (metrics == EngineMetrics.NONE) return;
+
+        long[] values = new long[2];
+        CURL.curl_easy_getinfo_batch(handle.curl, TRANSFER_INFOS, values);
+        metrics.transferCompleted(result, Math.max(0, values[0]), Math.max(0, values[1]));
+    }
+
+    void recordStats(@Nullable String origin, TransferStats stats) {
+        if (originStats == null || origin == null) return;
+
+        originStats.computeIfAbsent(origin, e -> new OriginStats()).record(stats);
+    }
+
+    HandlePool<CurlHandle>.Entry getHandle(@Nullable String origin) {
+        return CURL_HANDLES.get(origin);
+    }
+
+    HandlePool<CurlMultiHandle>.Entry getMultiHandle(@Nullable String origin) {
+        return getMultiHandle(origin, multiplex);
+    }
+
+    /**
+     * Get a pooled multi handle, with the given multiplexing setting applied.
+     * <p>
+     * Pooled handles keep whatever setting their last user applied, so it is set on every acquire.
+     *
+     * @param origin    The origin the handle will be used for.
+     * @param multiplex If transfers on the handle may be multiplexed over a single connection.
+     * @return The entry.
+     */
+    HandlePool<CurlMultiHandle>.Entry getMultiHandle(@Nullable String origin, boolean multiplex) {
+        HandlePool<CurlMultiHandle>.Entry entry = MULTI_HANDLES.get(origin);
+        CURL.curl_multi_setopt(entry.handle.multi, CURL.CURLMOPT_PIPELINING, multiplex ? CURL.CURLPIPE_MULTIPLEX : CURL.CURLPIPE_NOTHING);
+        return entry;
+    }
+
+    /**
+     * Get the next reactor to drive an incremental transfer.
+     *
+     * @return The reactor, or {@code null} if this engine does not use reactors.
+     */
+    @Nullable MultiReactor nextReactor() {
+        if (reactors == null) return null;
+
+        return reactors[Math.floorMod(nextReactor.getAndIncrement(), reactors.length)];
+    }
+
+    /**
+     * @return If incremental transfers are driven by reactors.
+     */
+    boolean usesReactors() {
+        return reactors != null;
+    }
+
+    /**
+     * Get a reactor to drive an async transfer.
+     * <p>
+     * If this engine does not use reactors, a single reactor is created on first use.
+     *
+     * @return The reactor.
+     */
+    MultiReactor asyncReactor() {
+        MultiReactor reactor = nextReactor();
+        if (reactor != null) return reactor;
+
+        synchronized (this) {
+            if (closed) throw new RuntimeException("Engine already closed.");
+            if (asyncReactor == null) {
+                asyncReactor = new MultiReactor("Curl4j Async Reactor", multiplex);
+            }
+            return asyncReactor;
+        }
+    }
+
+    // Holds a reference to the engine's share until the handle is cleaned up.
+    // Handles are not auto-cleaning, the pool always cleans up the handles it evicts.
+    private static final class SharedCurlHandle extends CurlHandle {
+
+        private final CurlShareHandle share;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        SharedCurlHandle(CurlShareHandle share) {
+            super(new AtomicLong(CURL.curl_easy_init()));
+            this.share = share;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            if (released.compareAndSet(false, true)) {
+                share.release();
+            }
+        }
+    }
+
+    // Releases the engine's share once the handles have been cleaned up.
+    private static final class SharedCurlMultiHandle extends CurlMultiHandle {
+
+        private final CurlShareHandle share;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        SharedCurlMultiHandle(CurlShareHandle share) {
+            super(new AtomicLong(CURL.curl_easy_init()), new AtomicLong(CURL.curl_multi_init()));
+            this.share = share;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            if (released.compareAndSet(false, true)) {
+                share.release();
+            }
+        }
+    }
+
+    /**
+     * Builder for configuring a {@link Curl4jHttpEngine}.
+     */
+    public static final class Builder {
+
+        private @Nullable CABundle caBundle;
+        private @Nullable String impersonate;
+        private int reactorThreads;
+        private boolean curlHeaders;
+        private long caCacheTimeout;
+        private int httpVersion = CURL.CURL_HTTP_VERSION_NONE;
+        private boolean multiplex = true;
+        private boolean transferStats;
+        private boolean originStats;
+        private EngineMetrics metrics = EngineMetrics.NONE;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the default {@link CABundle} for all requests.
+         *
+         * @param caBundle The bundle.
+         * @return The same builder.
+         */
+        public Builder caBundle(@Nullable CABundle caBundle) {
+            this.caBundle = caBundle;
+            return this;
+        }
+
+        /**
+         * Set the curl-impersonate target for all requests.
+         *
+         * @param impersonate The impersonation target. E.g. "chrome110"
+         * @return The same builder.
+         */
+        public Builder impersonate(@Nullable String impersonate) {
+            this.impersonate = impersonate;
+            return this;
+        }
+
+        /**
+         * Drive all incremental responses from a fixed set of reactor threads.
+         * <p>
+         * By default, each incremental response owns a curl_multi handle, and the
+         * consuming thread drives the transfer as it reads the body. With reactors
+         * enabled, each reactor thread owns a single curl_multi handle which drives
+         * every transfer assigned to it, sharing its connection cache between them.
+         * Consumers simply wait for data to be delivered.
+         * <p>
+         * A single reactor thread is generally enough to drive thousands of concurrent
+         * transfers.
+         *
+         * @param threads The number of reactor threads. {@code 0} to disable.
+         * @return The same builder.
+         */
+        public Builder reactorThreads(int threads) {
+            if (threads < 0) throw new IllegalArgumentException("Reactor threads must not be negative.");
+            reactorThreads = threads;
+            return this;
+        }
+
+        /**
+         * Set how long curl may keep a parsed {@link CABundle} around, to be re-used by new connections.
+         * <p>
+         * Parsing the bundle costs milliseconds of CPU for every new connection. To allow curl to cache it,
+         * the bundle is passed to curl as a file (see {@link CABundle#getCAFile}). The cache lives in each
+         * curl_multi handle, so is shared by every transfer on a reactor, and by every request re-using a
+         * pooled handle.
+         * <p>
+         * Curl does not cache its CA store when a CA path is set, so enabling caching also clears
+         * {@link CURL#CURLOPT_CAPATH}. Any CA path compiled into curl is then no longer trusted, only
+         * the bundle is.
+         * <p>
+         * By default, or with {@code 0}, caching is disabled, and the bundle is passed to curl from memory.
+         *
+         * @param seconds The timeout in seconds.
+         * @return The same builder.
+         */
+        public Builder caCacheTimeout(long seconds) {
+            if (seconds < 0) throw new IllegalArgumentException("Timeout must not be negative.");
+            caCacheTimeout = seconds;
+            return this;
+        }
+
+        /**
+         * Read response headers from curl's own header store, instead of collecting
+         * every header line through a callback.
+         * <p>
+         * This avoids a call from native code into Java for every header line. Requires
+         * curl 7.83.0 or newer, older versions silently fall back to the callback.
+         *
+         * @param curlHeaders If curl's header store should be used.
+         * @return The same builder.
+         */
+        public Builder curlHeaders(boolean curlHeaders) {
+            this.curlHeaders = curlHeaders;
+            return this;
+        }
+
+        /**
+         * Set the default HTTP version for all requests.
+         * <p>
+         * If the installed curl does not support the version, curl's default is used instead.
+         *
+         * @param httpVersion One of the {@code CURL_HTTP_VERSION_*} constants.
+         * @return The same builder.
+         * @see Curl4jEngineRequest#httpVersion(int)
+         */
+        public Builder httpVersion(int httpVersion) {
+            this.httpVersion = httpVersion;
+            return this;
+        }
+
+        /**
+         * Allow concurrent requests to the same origin to be multiplexed over a single HTTP/2 connection.
+         * <p>
+         * Requests prefer to wait for an existing connection to confirm it can multiplex, instead of
+         * opening a new connection. Only transfers driven by the same curl_multi handle can share a
+         * connection this way, so this only applies to incremental and async requests driven by
+         * {@link #reactorThreads(int) reactors}, or the engine's async reactor. With the default engine,
+         * without reactors, each blocking request drives its own curl_multi handle, so nothing is
+         * multiplexed. Segmented downloads always use a connection per segment. When
+         * {@link Curl4jHttpEngine#prewarm prewarming} through reactors, multiplexed connections
+         * are shared in the same way, so fewer connections may be opened.
+         * <p>
+         * Enabled by default.
+         *
+         * @param multiplex If multiplexing should be enabled.
+         * @return The same builder.
+         */
+        public Builder multiplex(boolean multiplex) {
+            this.multiplex = multiplex;
+            return this;
+        }
+
+        /**
+         * Capture the timings and connection details of every transfer, see {@link Curl4jEngineResponse#transferStats()}.
+         * <p>
+         * Capturing costs a native call per completed transfer, so is disabled by default.
+         * Always enabled when {@link #originStats(boolean) origin stats} are enabled.
+         *
+         * @param transferStats If stats should be captured.
+         * @return The same builder.
+         */
+        public Builder transferStats(boolean transferStats) {
+            this.transferStats = transferStats;
+            return this;
+        }
+
+        /**
+         * Aggregate the latencies of all transfers, per origin, see {@link Curl4jHttpEngine#getOriginStats}.
+         * <p>
+         * Stats are kept for every origin the engine talks to, for the lifetime of the engine.
+         *
+         * @param originStats If stats should be aggregated.
+         * @return The same builder.
+         */
+        public Builder originStats(boolean originStats) {
+            this.originStats = originStats;
+            return this;
+        }
+
+        /**
+         * Report instrumentation events to the given {@link EngineMetrics}.
+         *
+         * @param metrics The metrics.
+         * @return The same builder.
+         */
+        public Builder metrics(EngineMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Build the engine.
+         *
+         * @return The engine.
+         */
+        public Curl4jHttpEngine build() {
+            return new Curl4jHttpEngine(caBundle, impersonate, reactorThreads, curlHeaders, caCacheTimeout, httpVersion, multiplex, transferStats, originStats, metrics);
+        }
     }
 }
@@ -0,0 +1,91 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.curl4j.httpapi;
+
+/**
+ * Receives instrumentation events from a {@link Curl4jHttpEngine}.
+ * <p>
+ * All methods default to doing nothing, implementations only override the events they
+ * care about. Events are fired inline, from whichever thread triggered them, including
+ * reactor threads and the shared handle pool housekeeping thread. Implementations must
+ * be thread safe, and should be cheap, e.g. incrementing counters.
+ * <p>
+ * When no metrics are configured, the engine uses {@link #NONE} and skips any work
+ * required to produce events.
+ * <p>
+ * Created by covers1624 on 18/10/26.
+ */
+public interface EngineMetrics {
+
+    /**
+     * Metrics which ignore every event.
+     */
+    EngineMetrics NONE = new EngineMetrics() { };
+
+    /**
+     * The kinds of native handles pooled by the engine.
+     */
+    enum HandleType {
+        /**
+         * A curl easy handle, one is in use for every in-flight transfer.
+         */
+        EASY,
+        /**
+         * A curl multi handle, used to drive incremental responses and segmented downloads
+         * when the engine does not use reactors.
+         */
+        MULTI,
+    }
+
+    /**
+     * A handle was taken from the pool.
+     *
+     * @param type  The type of handle.
+     * @param hit   {@code true} if an idle handle was re-used, {@code false} if a new handle was created.
+     * @param inUse The number of handles of this type now in use. For {@link HandleType#EASY}, this
+     *              is the number of in-flight transfers.
+     */
+    default void handleAcquired(HandleType type, boolean hit, int inUse) { }
+
+    /**
+     * A handle was returned to the pool.
+     *
+     * @param type  The type of handle.
+     * @param inUse The number of handles of this type still in use.
+     */
+    default void handleReleased(HandleType type, int inUse) { }
+
+    /**
+     * A new handle was created, as no idle handle was available.
+     *
+     * @param type The type of handle.
+     */
+    default void handleCreated(HandleType type) { }
+
+    /**
+     * A handle was closed by the pool, due to expiry, or the pool being full.
+     *
+     * @param type The type of handle.
+     */
+    default void handleEvicted(HandleType type) { }
+
+    /**
+     * A transfer completed, successfully or not.
+     * <p>
+     * Not fired for transfers which are aborted by closing their response early.
+     *
+     * @param result        The {@code CURLcode} of the transfer, {@code CURLE_OK} on success.
+     * @param bytesReceived The number of body bytes received.
+     * @param bytesSent     The number of body bytes sent.
+     */
+    default void transferCompleted(int result, long bytesReceived, long bytesSent) { }
+
+    /**
+     * The body buffer of an incremental response had to be grown, as curl delivered more
+     * data than it could hold.
+     *
+     * @param newSize The new size of the buffer in bytes.
+     */
+    default void bufferGrown(int newSize) { }
+}
@@ -5,33 +5,52 @@ package net.covers1624.curl4j.httpapi;
 
 import net.covers1624.curl4j.util.CurlHandle;
 import net.covers1624.quack.util.Duration;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 /**
  * A simple pool of {@link CurlHandle} instances.
  * <p>
- * This is a time based pool. By default, after 5 minutes of inactivity the
- * entry will be purged from the pool and cleaned up. When an entry is removed,
- * it will have {@link CurlHandle#close()} called.
+ * This is a bounded, time based pool. Idle entries are kept in a lock-free stack,
+ * the most recently returned entry is handed out first, keeping warm handles in use.
+ * By default, at most 64 entries are kept idle, and entries which have been idle for
+ * more than 5 minutes will be purged from the pool. When an entry is removed, it will
+ * have {@link CurlHandle#close()} called.
+ * <p>
+ * All pools share a single housekeeping thread.
  * <p>
  * Created by covers1624 on 16/1/24.
  */
 final class HandlePool<T extends AutoCloseable> implements AutoCloseable {
 
+    private static final int DEFAULT_MAX_IDLE = 64;
+
+    // Entry states.
+    private static final int IN_USE = 0;
+    private static final int RETURNED = 1;
+
     private final Supplier<T> factory;
-    private final LinkedList<Entry> entries = new LinkedList<>();
-    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread th = new Thread(r);
-                th.setName("Handle Pool Cleaner");
-                th.setDaemon(true);
-                return th;
-            }
-    );
+    private final EngineMetrics metrics;
+    private final EngineMetrics.@Nullable HandleType type;
+    private final int maxIdle;
+    private final long idleMillis;
+    private final ConcurrentLinkedDeque<Entry> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final ScheduledFuture<?> cleanTask;
+    private volatile boolean closed;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
 
     /**
      * Create a new pool with default time management.
@@ -39,12 +58,46 @@ final class HandlePool<T extends AutoCloseable> implements AutoCloseable {
      * @param factory The factory to create new instances.
      */
     public HandlePool(Supplier<T> factory) {
-        this(factory, Duration.minutes(1), Duration.minutes(5));
+        this(factory, EngineMetrics.NONE, null);
+    }
+
+    /**
+     * Create a new pool with default time management, reporting to the given metrics.
+     *
+     * @param factory The factory to create new instances.
+     * @param metrics The metrics to report to.
+     * @param type    The type of handle to report as, {@code null} to not report.
+     */
+    public HandlePool(Supplier<T> factory, EngineMetrics metrics, EngineMetrics.@Nullable HandleType type) {
+        this(factory, Duration.minutes(1), Duration.minutes(5), DEFAULT_MAX_IDLE, metrics, type);
     }
 
     public HandlePool(Supplier<T> factory, Duration pollTime, Duration liveTime) {
+        this(factory, pollTime, liveTime, DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * Create a new pool.
+     *
+     * @param factory  The factory to create new instances.
+     * @param pollTime How often to check for expired entries.
+     * @param liveTime How long an entry may sit idle in the pool before it is removed.
+     * @param maxIdle  The maximum number of idle entries to keep.
+     */
+    public HandlePool(Supplier<T> factory, Duration pollTime, Duration liveTime, int maxIdle) {
+        this(factory, pollTime, liveTime, maxIdle, EngineMetrics.NONE, null);
+    }
+
+    private HandlePool(Supplier<T> factory, Duration pollTime, Duration liveTime, int maxIdle, EngineMetrics metrics, EngineMetrics.@Nullable HandleType type) {
+        if (maxIdle < 0) throw new IllegalArgumentException("Max idle must not be negative.");
+
         this.factory = factory;
-        executor.scheduleAtFixedRate(() -> clean(liveTime), pollTime.time, pollTime.time, pollTime.unit);
+        // Without a type there is nothing to report as.
+        this.metrics = type != null ? metrics : EngineMetrics.NONE;
+        this.type = type;
+        this.maxIdle = maxIdle;
+        idleMillis = liveTime.unit.toMillis(liveTime.time);
+        cleanTask = Cleaner.EXECUTOR.scheduleAtFixedRate(this::clean, pollTime.time, pollTime.time, pollTime.unit);
     }
 
     /**
@@ -53,14 +106,55 @@ final class HandlePool<T extends AutoCloseable> implements AutoCloseable {
      * @return The entry.
      */
     public Entry get() {
-        synchronized (entries) {
-            Entry entry = entries.poll();
-            if (entry == null) {
-                entry = new Entry(factory.get());
+        return get(null);
+    }
+
+    /**
+     * Get an entry from the pool, preferring one which was last used with the given affinity key.
+     * <p>
+     * If no idle entry has a matching key, any idle entry is used.
+     *
+     * @param key The affinity key, {@code null} for no preference.
+     * @return The entry.
+     */
+    public Entry get(@Nullable Object key) {
+        Entry entry = key != null ? pollMatching(key) : null;
+        if (entry == null) {
+            entry = idle.pollFirst();
+        }
+        boolean hit = entry != null;
+        if (entry != null) {
+            idleCount.decrementAndGet();
+            hits.increment();
+        } else {
+            misses.increment();
+            entry = new Entry(factory.get());
+            created.increment();
+        }
+        entry.state.set(IN_USE);
+        entry.key = key;
+        int inUse = this.inUse.incrementAndGet();
+        if (metrics != EngineMetrics.NONE) {
+            assert type != null;
+            if (!hit) {
+                metrics.handleCreated(type);
             }
-            entry.lastUsed = System.currentTimeMillis();
-            return entry;
+            metrics.handleAcquired(type, hit, inUse);
         }
+        return entry;
+    }
+
+    private @Nullable Entry pollMatching(Object key) {
+        // The idle stack is bounded by maxIdle, a linear scan is fine.
+        for (Entry entry : idle) {
+            if (!key.equals(entry.key)) continue;
+
+            // Only one of us, or a concurrent get, may take the entry.
+            if (idle.removeFirstOccurrence(entry)) {
+                return entry;
+            }
+        }
+        return null;
     }
 
     /**
@@ -69,49 +163,119 @@ final class HandlePool<T extends AutoCloseable> implements AutoCloseable {
      * @param entry The entry to return.
      */
     public void finished(Entry entry) {
-        synchronized (entries) {
-            // Add to front. Allows for usage pressure to discard old
-            // handles automatically.
-            entries.addFirst(entry);
+        // Only the first return of an entry counts, it may already be pooled or evicted.
+        if (!entry.state.compareAndSet(IN_USE, RETURNED)) return;
+
+        int inUse = this.inUse.decrementAndGet();
+        if (metrics != EngineMetrics.NONE) {
+            assert type != null;
+            metrics.handleReleased(type, inUse);
+        }
+
+        // Pool is full, or closed, just throw it away.
+        if (closed || idleCount.incrementAndGet() > maxIdle) {
+            if (!closed) idleCount.decrementAndGet();
+            evict(entry);
+            return;
+        }
+        entry.lastUsed = System.currentTimeMillis();
+        // Add to front. Allows for usage pressure to discard old
+        // handles automatically.
+        idle.addFirst(entry);
+
+        // We raced with close, make sure the entry does not leak.
+        if (closed && idle.removeFirstOccurrence(entry)) {
+            idleCount.decrementAndGet();
+            evict(entry);
         }
     }
 
+    /**
+     * @return The number of times an idle entry was re-used.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of times no idle entry was available.
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of entries created by this pool.
+     */
+    public long created() {
+        return created.sum();
+    }
+
+    /**
+     * @return The number of entries closed by this pool, due to expiry, or the pool being full.
+     */
+    public long evicted() {
+        return evicted.sum();
+    }
+
+    /**
+     * @return The current number of entries handed out, and not yet returned.
+     */
+    public int inUse() {
+        return inUse.get();
+    }
+
+    /**
+     * @return The current number of idle entries.
+     */
+    public int idle() {
+        return Math.max(0, idleCount.get());
+    }
+
     @Override
     public void close() {
-        executor.shutdownNow();
-        synchronized (entries) {
-            for (Entry entry : entries) {
-                try {
-                    entry.handle.close();
-                } catch (Throwable ignored) {
-                }
-            }
-            entries.clear();
+        closed = true;
+        cleanTask.cancel(false);
+        Entry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            evict(entry);
         }
     }
 
-    private void clean(Duration liveTime) {
-        long lt = liveTime.unit.toMillis(liveTime.time);
-        synchronized (entries) {
-            long currTime = System.currentTimeMillis();
-            for (Iterator<Entry> iterator = entries.iterator(); iterator.hasNext(); ) {
-                Entry entry = iterator.next();
-                if (entry.lastUsed + lt > currTime) {
-                    iterator.remove();
-                    try {
-                        entry.handle.close();
-                    } catch (Throwable ignored) {
-                        // TODO log??
-                    }
-                }
+    private void clean() {
+        long currTime = System.currentTimeMillis();
+        // Oldest entries live at the back.
+        for (Iterator<Entry> iterator = idle.descendingIterator(); iterator.hasNext(); ) {
+            Entry entry = iterator.next();
+            if (currTime - entry.lastUsed < idleMillis) continue;
+
+            // Only one of us, or a concurrent get, may take the entry.
+            if (idle.removeLastOccurrence(entry)) {
+                idleCount.decrementAndGet();
+                evict(entry);
             }
         }
     }
 
+    private void evict(Entry entry) {
+        evicted.increment();
+        if (metrics != EngineMetrics.NONE) {
+            assert type != null;
+            metrics.handleEvicted(type);
+        }
+        try {
+            entry.handle.close();
+        } catch (Throwable ignored) {
+        }
+    }
+
     public final class Entry implements AutoCloseable {
 
         public T handle;
         private long lastUsed;
+        private final AtomicInteger state = new AtomicInteger(IN_USE);
+        private @Nullable Object key;
 
         private Entry(T handle) {
             this.handle = handle;
@@ -122,4 +286,20 @@ final class HandlePool<T extends AutoCloseable> implements AutoCloseable {
             finished(this);
         }
     }
+
+    private static final class Cleaner {
+
+        private static final ScheduledThreadPoolExecutor EXECUTOR = new ScheduledThreadPoolExecutor(1, r -> {
+                    Thread th = new Thread(r);
+                    th.setName("Handle Pool Cleaner");
+                    th.setDaemon(true);
+                    return th;
+                }
+        );
+
+        static {
+            // Don't keep closed pools alive until their next scheduled run.
+            EXECUTOR.setRemoveOnCancelPolicy(true);
+        }
+    }
 }
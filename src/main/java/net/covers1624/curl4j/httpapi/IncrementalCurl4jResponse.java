@@ -4,9 +4,11 @@
 package net.covers1624.curl4j.httpapi;
 
 import net.covers1624.curl4j.CURLMsg;
+import net.covers1624.curl4j.CurlHeaderCallback;
 import net.covers1624.curl4j.CurlWriteCallback;
 import net.covers1624.curl4j.CurlXferInfoCallback;
 import net.covers1624.curl4j.core.Memory;
+import net.covers1624.curl4j.core.NativeArena;
 import net.covers1624.curl4j.core.Pointer;
 import net.covers1624.curl4j.util.*;
 import net.covers1624.quack.net.httpapi.HeaderList;
@@ -16,8 +18,12 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
 import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 import static net.covers1624.curl4j.CURL.*;
@@ -27,6 +33,9 @@ import static net.covers1624.curl4j.CURL.*;
  */
 class IncrementalCurl4jResponse extends Curl4jEngineResponse {
 
+    // Upper bound on how long we block in poll, curl will shorten this if it has timers pending.
+    private static final int POLL_TIMEOUT_MS = 1000;
+
     private static final HandlePool<NativeBuffer> BUFFERS = new HandlePool<>(() -> new NativeBuffer(64 * 1024));
 
     // 64k buffer.
@@ -37,16 +46,42 @@ class IncrementalCurl4jResponse extends Curl4jEngineResponse {
     private boolean done;
     private boolean paused;
 
+    // Set whilst a channel read into a direct buffer is in progress, curl writes straight into
+    // the caller's memory. Anything which does not fit overflows into our buffer.
+    private long target = Memory.NULL;
+    private int targetRemaining;
+    private int targetWritten;
+    // Set when the body is closed, possibly from another thread, to abort a blocked read.
+    private volatile boolean aborted;
+    // Guarded by our lock. Once set, the handles may have been returned to their pools.
+    private boolean closed;
+
+    // Reactor mode only, set when the consumer has taken the buffer to read from.
+    // The reactor must not write into the buffer whilst this is set.
+    private boolean consumerOwned;
+    private int result = CURLE_OK;
+    private @Nullable Curl4jHttpException error;
+
     private final Curl4jEngineRequest request;
-    private final HandlePool<CurlMultiHandle>.Entry handleEntry;
-    private final CurlMultiHandle handle;
+    private final HandlePool<? extends CurlHandle>.Entry handleEntry;
+    private final CurlHandle handle;
+    // Exactly one of these is set. Either we drive our own multi handle, or a reactor drives us.
+    private final @Nullable CurlMultiHandle multiHandle;
+    private final @Nullable MultiReactor reactor;
+    // Async mode only, completed from the reactor once the final response's headers are complete, or the transfer completes.
+    private @Nullable CompletableFuture<Curl4jEngineResponse> asyncFuture;
+    // Async mode only, detects the end of the response headers.
+    private @Nullable CurlHeaderCallback asyncHeaderCallback;
 
     private final @Nullable CurlInput input;
     private final @Nullable CurlMimeBody mimeBody;
+    // Holds the request's small native allocations, released in one go on close.
+    private final NativeArena arena = new NativeArena();
     private final SListHeaderWrapper headers;
     private final @Nullable CurlXferInfoCallback xferCallback;
+    private final HeaderCollector headerCollector;
 
-    private final int statusCode;
+    private int statusCode = -1;
 
     private final HeaderList responseHeaders = new HeaderList();
 
@@ -54,19 +89,47 @@ class IncrementalCurl4jResponse extends Curl4jEngineResponse {
         int rs = (int) (size * nmemb);
         if (rs == 0) return rs;
 
-        // If our buffer is too small to consume this piece of data.
-        if (buffer.remaining() < rs) {
-            // If we already have a chunk of data, pause the transfer.
-            if (buffer.position() != 0) {
+        synchronized (this) {
+            // The consumer is reading from the buffer, we must wait for it to be handed back.
+            if (consumerOwned) {
                 paused = true;
                 return CURL_WRITEFUNC_PAUSE;
             }
-            // We must grow the buffer, we can't pause as we have no data,
-            // and we can't partially consume.
-            growBuffer(rs - buffer.remaining());
+            // First bytes of the body, headers are complete.
+            captureResponse();
+
+            int off = 0;
+            if (targetRemaining > 0) {
+                off = Math.min(rs, targetRemaining);
+                Memory.memcpy(ptr, target + targetWritten, off);
+                targetWritten += off;
+                targetRemaining -= off;
+                if (off == rs) {
+                    notifyAll();
+                    return rs;
+                }
+            }
+            int len = rs - off;
+
+            // If our buffer is too small to consume this piece of data.
+            if (buffer.remaining() < len) {
+                // If we already have a chunk of data, and haven't consumed any of this one, pause the transfer.
+                if (off == 0 && (buffer.position() != 0 || targetWritten != 0)) {
+                    paused = true;
+                    notifyAll();
+                    return CURL_WRITEFUNC_PAUSE;
+                }
+                // We must grow the buffer, we can't pause as we have no data,
+                // and we can't partially consume.
+                growBuffer(len - buffer.remaining());
+            }
+            Memory.memcpy(ptr + off, buf + buffer.position(), len);
+            buffer.position(buffer.position() + len);
+            if (asyncFuture != null) {
+                completeAsync();
+            }
+            notifyAll();
         }
-        Memory.memcpy(ptr, buf + buffer.position(), rs);
-        buffer.position(buffer.position() + rs);
         return rs;
     });
     private final InputStream is = new InputStream() {
@@ -75,6 +138,8 @@ class IncrementalCurl4jResponse extends Curl4jEngineResponse {
             if (buffer.remaining() == 0) {
                 if (done) return -1;
                 fillBuffer();
+                // Transfer finished without any more data.
+                if (buffer.remaining() == 0) return -1;
             }
             return buffer.get() & 0xFF;
         }
@@ -84,11 +149,18 @@ class IncrementalCurl4jResponse extends Curl4jEngineResponse {
             if (buffer.remaining() == 0) {
                 if (done) return -1;
                 fillBuffer();
+                // Transfer finished without any more data.
+                if (buffer.remaining() == 0) return -1;
             }
             int l = Math.min(len, buffer.remaining());
             buffer.get(b, off, l);
             return l;
         }
+
+        @Override
+        public void close() {
+            abort();
+        }
     };
     private final ReadableByteChannel channel = new ReadableByteChannel() {
         private boolean open = true;
@@ -97,7 +169,15 @@ class IncrementalCurl4jResponse extends Curl4jEngineResponse {
         public int read(ByteBuffer dst) throws IOException {
             if (buffer.remaining() == 0) {
                 if (done) return -1;
+                if (dst.isDirect() && dst.hasRemaining()) {
+                    // Have curl write straight into the destination, anything extra will be
+                    // available in our buffer for the next read.
+                    int written = fillDirect(dst);
+                    return written != 0 ? written : -1;
+                }
                 fillBuffer();
+                // Transfer finished without any more data.
+                if (buffer.remaining() == 0) return -1;
             }
             int toRead = Math.min(dst.remaining(), buffer.remaining());
             int oldL = buffer.limit();
@@ -115,21 +195,70 @@ class IncrementalCurl4jResponse extends Curl4jEngineResponse {
         @Override
         public void close() {
             open = false;
+            abort();
         }
     };
-    private final WebBody webBody;
-
+    private @Nullable WebBody webBody;
+
+    /**
+     * Create a response which drives its own curl_multi handle on the consuming thread.
+     *
+     * @param request     The request.
+     * @param handleEntry The pooled multi handle, setup for the request.
+     */
     public IncrementalCurl4jResponse(Curl4jEngineRequest request, HandlePool<CurlMultiHandle>.Entry handleEntry) throws IOException {
+        this(request, handleEntry, handleEntry.handle, null, null);
+        awaitResponse();
+    }
+
+    /**
+     * Create a response which is driven by the given {@link MultiReactor}.
+     *
+     * @param request     The request.
+     * @param handleEntry The pooled curl handle, setup for the request.
+     * @param reactor     The reactor to drive the transfer.
+     */
+    public IncrementalCurl4jResponse(Curl4jEngineRequest request, HandlePool<CurlHandle>.Entry handleEntry, MultiReactor reactor) throws IOException {
+        this(request, handleEntry, null, reactor, null);
+        awaitResponse();
+    }
+
+    /**
+     * Start a response which is driven by the given {@link MultiReactor}, without blocking.
+     * <p>
+     * The returned future is completed on the reactor thread once the headers of the final
+     * response are complete, or the transfer completes. Blocking reads of the body must not
+     * be performed on the reactor thread. Cancelling the future aborts the transfer.
+     * <p>
+     * If the response fails to start, it is closed, releasing the handle.
+     *
+     * @param request     The request.
+     * @param handleEntry The pooled curl handle, setup for the request.
+     * @param reactor     The reactor to drive the transfer.
+     * @return The future response.
+     */
+    static CompletableFuture<Curl4jEngineResponse> executeAsync(Curl4jEngineRequest request, HandlePool<CurlHandle>.Entry handleEntry, MultiReactor reactor) throws IOException {
+        CompletableFuture<Curl4jEngineResponse> future = new CompletableFuture<>();
+        new IncrementalCurl4jResponse(request, handleEntry, null, reactor, future);
+        return future;
+    }
+
+    // Releases everything, including the handle, if setup fails.
+    private IncrementalCurl4jResponse(Curl4jEngineRequest request, HandlePool<? extends CurlHandle>.Entry handleEntry, @Nullable CurlMultiHandle multiHandle, @Nullable MultiReactor reactor, @Nullable CompletableFuture<Curl4jEngineResponse> asyncFuture) throws IOException {
         this.request = request;
         this.handleEntry = handleEntry;
+        this.multiHandle = multiHandle;
+        this.reactor = reactor;
+        this.asyncFuture = asyncFuture;
 
         handle = handleEntry.handle;
-        input = request.makeInput();
-        mimeBody = request.buildMime(handle);
-        headers = new SListHeaderWrapper(request.headers().toStrings());
-        xferCallback = request.xferCallback(request.listener());
+        try {
+            headerCollector = request.makeHeaderCollector();
+            input = request.makeInput();
+            mimeBody = request.buildMime(handle);
+            headers = new SListHeaderWrapper(request.headers().toStrings(), arena);
+            xferCallback = request.xferCallback(request.listener());
 
-        try (HeaderCollector headerCollector = new HeaderCollector()) {
             if (input != null) {
                 input.apply(handle);
             } else if (mimeBody != null) {
@@ -137,13 +266,13 @@ class IncrementalCurl4jResponse extends Curl4jEngineResponse {
             }
             headers.apply(handle);
             headerCollector.apply(handle);
+            if (asyncFuture != null) {
+                asyncHeaderCallback = newAsyncHeaderCallback();
+                curl_easy_setopt(handle.curl, CURLOPT_HEADERFUNCTION, asyncHeaderCallback);
+            }
 
             curl_easy_setopt(handle.curl, CURLOPT_WRITEFUNCTION, writeCallback.getFunctionAddress());
 
-            if (request.caBundle() != null) {
-                request.caBundle().apply(handle);
-            }
-
             if (xferCallback != null) {
                 curl_easy_setopt(handle.curl, CURLOPT_NOPROGRESS, false);
                 curl_easy_setopt(handle.curl, CURLOPT_XFERINFOFUNCTION, xferCallback);
@@ -154,33 +283,136 @@ class IncrementalCurl4jResponse extends Curl4jEngineResponse {
             for (Consumer<CurlHandle> customOption : request.customOptions()) {
                 customOption.accept(handle);
             }
+        } catch (Throwable ex) {
+            closeQuietly(ex);
+            throw ex;
+        }
 
-            curl_multi_add_handle(handle.multi, handle.curl);
+        if (reactor != null) {
+            MultiReactor.Transfer transfer = new MultiReactor.Transfer() {
+                @Override
+                public void onDone(int result) {
+                    finish(result, null);
+                }
 
+                @Override
+                public void onError(Curl4jHttpException ex) {
+                    finish(CURLE_OK, ex);
+                }
+            };
+            reactor.add(handle.curl, transfer);
+            if (asyncFuture != null) {
+                CompletableFuture<Curl4jEngineResponse> future = asyncFuture;
+                future.whenComplete((r, ex) -> {
+                    if (ex instanceof CancellationException) {
+                        reactor.cancel(handle.curl, transfer);
+                    }
+                });
+            }
+        } else {
+            assert multiHandle != null;
+            curl_multi_add_handle(multiHandle.multi, handle.curl);
+        }
+    }
+
+    // Wraps the header collector's callback, if it has one, to complete the async future
+    // once the headers of the final response are complete.
+    private CurlHeaderCallback newAsyncHeaderCallback() {
+        CurlHeaderCallback collector = headerCollector.usesCurlHeaders() ? null : headerCollector.callback();
+        return new CurlHeaderCallback() {
+            @Override
+            public long invokeData(long ptr, long size, long nmemb, long userdata) {
+                int rs = (int) (size * nmemb);
+                if (collector != null) {
+                    collector.invokeData(ptr, size, nmemb, userdata);
+                }
+                // Each block of headers ends with a blank line.
+                if (rs <= 2 && (rs == 0 || Memory.getByte(ptr) == '\r' || Memory.getByte(ptr) == '\n')) {
+                    onHeadersComplete();
+                }
+                return rs;
+            }
+
+            @Override
+            public void onHeader(String header, long userdata) {
+                if (collector != null) {
+                    collector.onHeader(header, userdata);
+                }
+                if (header.trim().isEmpty()) {
+                    onHeadersComplete();
+                }
+            }
+        };
+    }
+
+    // Called on the reactor thread, from the header callback.
+    private synchronized void onHeadersComplete() {
+        if (asyncFuture == null || !isFinalResponse()) return;
+
+        completeAsync();
+    }
+
+    // If the headers just received belong to the final response, not an informational
+    // response, or a redirect curl is about to follow.
+    private boolean isFinalResponse() {
+        int code = (int) curl_easy_getinfo_long(handle.curl, CURLINFO_RESPONSE_CODE);
+        // Informational responses. Proxy CONNECT responses report 0.
+        if (code < 200) return false;
+        if (!request.followsRedirects()) return true;
+
+        switch (code) {
+            case 300:
+            case 301:
+            case 302:
+            case 303:
+            case 307:
+            case 308:
+                return headerCollector.getFirst("Location") == null;
+            default:
+                return true;
+        }
+    }
+
+    private void awaitResponse() throws IOException {
+        try {
             // Fill the buffer! This will populate all headers and response codes.
             fillBuffer();
-            statusCode = (int) curl_easy_getinfo_long(handle.curl, CURLINFO_RESPONSE_CODE);
-
-            responseHeaders.addAllMulti(headerCollector.getHeaders());
-            String contentType = responseHeaders.get("Content-Type");
-            String len = responseHeaders.get("Content-Length");
-            long contentLength = len != null && !len.isEmpty() ? Long.parseLong(len) : -1;
-
-            // @formatter:off
-            webBody = new WebBody() {
-                @Override public InputStream open() { return is; }
-                @Override public ReadableByteChannel openChannel() { return channel; }
-                @Override public boolean multiOpenAllowed() { return false; }
-                @Override public long length() { return contentLength; }
-                @Override public @Nullable String contentType() { return contentType; }
-            };
-            // @formatter:on
+        } catch (Throwable ex) {
+            close();
+            throw ex;
+        }
+        synchronized (this) {
+            // No-op if the body or transfer completion already captured these.
+            captureResponse();
         }
+        buildBody();
+    }
+
+    private void buildBody() {
+        String contentType = responseHeaders.get("Content-Type");
+        String len = responseHeaders.get("Content-Length");
+        long contentLength = len != null && !len.isEmpty() ? Long.parseLong(len) : -1;
+
+        // @formatter:off
+        webBody = new WebBody() {
+            @Override public InputStream open() { return is; }
+            @Override public ReadableByteChannel openChannel() { return channel; }
+            @Override public boolean multiOpenAllowed() { return false; }
+            @Override public long length() { return contentLength; }
+            @Override public @Nullable String contentType() { return contentType; }
+        };
+        // @formatter:on
     }
 
     private void fillBuffer() throws IOException {
         assert buffer.position() == 0 || buffer.position() == buffer.limit() : "Buffer must either be empty or fully consumed.";
 
+        if (reactor != null) {
+            awaitReactor(reactor);
+            return;
+        }
+        assert multiHandle != null;
+
         // Reset position to 0.
         buffer.position(0);
         // Reset limit to our capacity.
@@ -194,27 +426,35 @@ class IncrementalCurl4jResponse extends Curl4jEngineResponse {
 
         try (Memory.Stack stack = Memory.pushStack()) {
             Pointer nHandles = stack.mallocPointer();
-            // Do work until we are finished, or we paused.
-            while (!done && !paused) {
-                int ret = curl_multi_perform(handle.multi, nHandles);
+            // Do work until we are finished, paused, or have some data.
+            while (true) {
+                checkAborted();
+                int ret = curl_multi_perform(multiHandle.multi, nHandles);
 
                 // curl multi is not healthy.
                 if (ret != CURLM_OK) throw new Curl4jHttpException("Curl multi returned error: " + handle.errorBuffer + "(" + curl_multi_strerror(ret) + ")");
 
                 // curl_multi_perform gives us an out pointer for the number of active curl requests.
                 done = nHandles.readInt() == 0;
+                if (done || paused || buffer.position() != 0 || targetWritten != 0) break;
+
+                // Nothing to do yet, block until curl has socket activity, a timer expires, or we are woken.
+                ret = curl_multi_poll(multiHandle.multi, Memory.NULL, 0, POLL_TIMEOUT_MS, null);
+                if (ret != CURLM_OK) throw new Curl4jHttpException("Curl multi poll returned error: " + curl_multi_strerror(ret));
             }
             // We are done!
             if (done) {
                 // curl multi puts the curl results into a consumable list of messages for us to process
                 // currently (curl 8.2.1) only has a single CURLMSG result type.
                 CURLMsg msg;
-                while ((msg = curl_multi_info_read(handle.multi, nHandles)) != null) {
+                while ((msg = curl_multi_info_read(multiHandle.multi, nHandles)) != null) {
                     if (msg.msg() != CURLMSG_DONE) continue;
                     int ret = (int) msg.data();
+                    request.engine().transferCompleted(handle, ret);
                     if (ret != CURLE_OK) {
                         throw new Curl4jHttpException("Curl returned error: " + handle.errorBuffer + "(" + curl_easy_strerror(ret) + ")");
                     }
+                    setTransferStats(request.captureStats(handle));
                 }
             }
         }
@@ -222,6 +462,152 @@ class IncrementalCurl4jResponse extends Curl4jEngineResponse {
         buffer.flip();
     }
 
+    // Fill the given direct buffer straight from curl, returns the number of bytes written to it.
+    private int fillDirect(ByteBuffer dst) throws IOException {
+        synchronized (this) {
+            target = Memory.getDirectByteBufferAddress(dst) + dst.position();
+            targetRemaining = dst.remaining();
+            targetWritten = 0;
+        }
+        int written;
+        try {
+            fillBuffer();
+        } finally {
+            synchronized (this) {
+                written = targetWritten;
+                target = Memory.NULL;
+                targetRemaining = 0;
+                targetWritten = 0;
+            }
+        }
+        dst.position(dst.position() + written);
+        return written;
+    }
+
+    // Hand the buffer back to the reactor and wait for it to give us some data.
+    private synchronized void awaitReactor(MultiReactor reactor) throws IOException {
+        buffer.position(0);
+        buffer.limit(buffer.capacity());
+        consumerOwned = false;
+
+        // If we were paused, ask the reactor to unpause.
+        if (paused) {
+            paused = false;
+            reactor.unpause(handle.curl);
+        }
+
+        try {
+            while (!done && buffer.position() == 0 && targetWritten == 0) {
+                checkAborted();
+                wait();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted whilst waiting for data.");
+        }
+        consumerOwned = true;
+
+        Curl4jHttpException ex = transferException();
+        if (ex != null) throw ex;
+
+        // Flip the buffer position and limit. l = p; p = 0
+        buffer.flip();
+    }
+
+    private @Nullable Curl4jHttpException transferException() {
+        if (error != null) return new Curl4jHttpException(error.getMessage(), error);
+        if (result != CURLE_OK) {
+            return new Curl4jHttpException("Curl returned error: " + handle.errorBuffer + "(" + curl_easy_strerror(result) + ")");
+        }
+        return null;
+    }
+
+    // Called on the reactor thread, whilst holding our lock, once the first data arrives
+    // or the transfer completes. Hands the buffer to the consumer, as awaitReactor would.
+    private void completeAsync() {
+        assert reactor != null && asyncFuture != null;
+
+        CompletableFuture<Curl4jEngineResponse> future = asyncFuture;
+        asyncFuture = null;
+        consumerOwned = true;
+
+        Curl4jHttpException ex = transferException();
+        if (ex == null) {
+            captureResponse();
+            buildBody();
+            // Flip the buffer position and limit. l = p; p = 0
+            buffer.flip();
+        }
+        // We may be inside a curl callback, the future's dependents must run after curl returns.
+        reactor.execute(() -> {
+            if (ex != null) {
+                closeQuietly(ex);
+                future.completeExceptionally(ex);
+            } else if (!future.complete(this)) {
+                // Future was cancelled, nobody will close us.
+                closeQuietly(null);
+            }
+        });
+    }
+
+    private void closeQuietly(@Nullable Throwable cause) {
+        try {
+            close();
+        } catch (Throwable ex) {
+            if (cause != null) {
+                cause.addSuppressed(ex);
+            }
+        }
+    }
+
+    // Abort a blocked read, may be called from any thread.
+    private synchronized void abort() {
+        aborted = true;
+        // Our multi handle may already be back in the pool, in use by another request.
+        if (closed) return;
+
+        if (reactor != null) {
+            notifyAll();
+        } else {
+            assert multiHandle != null;
+            curl_multi_wakeup(multiHandle.multi);
+        }
+    }
+
+    private void checkAborted() throws IOException {
+        if (aborted) throw new AsynchronousCloseException();
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Interrupted whilst waiting for data.");
+        }
+    }
+
+    // Called from the reactor thread when the transfer is complete.
+    private synchronized void finish(int result, @Nullable Curl4jHttpException error) {
+        if (error == null) {
+            request.engine().transferCompleted(handle, result);
+            captureResponse();
+            if (result == CURLE_OK) {
+                setTransferStats(request.captureStats(handle));
+            }
+        }
+        this.result = result;
+        this.error = error;
+        done = true;
+        if (asyncFuture != null) {
+            completeAsync();
+        }
+        notifyAll();
+    }
+
+    // Called on the thread driving curl once the response headers are complete.
+    // Curl may still call the header callback with trailers after this point.
+    private void captureResponse() {
+        if (statusCode != -1) return;
+
+        statusCode = (int) curl_easy_getinfo_long(handle.curl, CURLINFO_RESPONSE_CODE);
+        headerCollector.forEach(responseHeaders::add);
+    }
+
     private void growBuffer(int more) {
         // Calculate new buffer size.
         int newSize = buffer.limit() + more;
@@ -232,16 +618,26 @@ class IncrementalCurl4jResponse extends Curl4jEngineResponse {
 
         buf = bufEnt.handle.address;
         buffer = bufEnt.handle.buffer;
+        request.engine().metrics().bufferGrown(newSize);
     }
 
     @Override
     public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+        }
         // Removing the curl handle from the multi handle will abort the request
         // if one is still running.
-        curl_multi_remove_handle(handle.multi, handle.curl);
+        if (reactor != null) {
+            reactor.remove(handle.curl);
+        } else {
+            assert multiHandle != null;
+            curl_multi_remove_handle(multiHandle.multi, handle.curl);
+        }
         bufEnt.handle.buffer.position(0);
         bufEnt.handle.buffer.limit(bufEnt.handle.buffer.capacity());
-        closeSafe(writeCallback, input, mimeBody, headers, xferCallback, handleEntry, bufEnt);
+        closeSafe(writeCallback, asyncHeaderCallback, headerCollector, input, mimeBody, headers, xferCallback, handleEntry, arena, bufEnt);
         if (request.listener() != null) {
             request.listener().end();
         }
@@ -272,6 +668,6 @@ class IncrementalCurl4jResponse extends Curl4jEngineResponse {
     @Override public int statusCode() { return statusCode; }
     @Override public String message() { return ""; }
     @Override public HeaderList headers() { return responseHeaders; }
-    @Override public WebBody body() { return webBody; }
+    @Override public WebBody body() { assert webBody != null; return webBody; }
     // @formatter:on
 }
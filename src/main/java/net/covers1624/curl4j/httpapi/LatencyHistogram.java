@@ -0,0 +1,137 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.curl4j.httpapi;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies, in microseconds.
+ * <p>
+ * Values are counted in log-linear buckets, each power of 2 is split into 8 buckets,
+ * so reported percentiles are within 12.5% of the recorded values. Recording never
+ * allocates, and is safe from any thread.
+ * <p>
+ * Created by covers1624 on 18/10/26.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a value.
+     *
+     * @param micros The value in microseconds. Negative values are ignored.
+     */
+    public void record(long micros) {
+        if (micros < 0) return;
+
+        buckets.incrementAndGet(bucket(micros));
+        count.increment();
+        sum.add(micros);
+        long curr;
+        while (micros > (curr = max.get()) && !max.compareAndSet(curr, micros)) {
+        }
+    }
+
+    /**
+     * @return The number of recorded values.
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * @return The mean of all recorded values, {@code 0} if none have been recorded.
+     */
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * @return The largest recorded value.
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Get the value at the given percentile.
+     * <p>
+     * The histogram may be recorded to concurrently, the result is approximate.
+     *
+     * @param percentile The percentile, between {@code 0} and {@code 100}.
+     * @return The upper bound of the bucket containing the percentile, {@code 0} if no values have been recorded.
+     */
+    public long percentile(double percentile) {
+        if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+
+        long total = 0;
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(total * (percentile / 100)));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) return Math.min(upperBound(i), max());
+        }
+        return max();
+    }
+
+    /**
+     * Reset the histogram.
+     * <p>
+     * Values recorded concurrently with a reset may be partially lost.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{"
+                + "count=" + count()
+                + ", mean=" + (long) mean() + "us"
+                + ", p50=" + percentile(50) + "us"
+                + ", p99=" + percentile(99) + "us"
+                + ", max=" + max() + "us"
+                + '}';
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exp - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exp - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+
+        int exp = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long width = 1L << (exp - SUB_BUCKET_BITS);
+        return ((SUB_BUCKETS + sub) << (exp - SUB_BUCKET_BITS)) + width - 1;
+    }
+}
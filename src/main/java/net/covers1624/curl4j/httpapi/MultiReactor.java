@@ -0,0 +1,292 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.curl4j.httpapi;
+
+import net.covers1624.curl4j.CURLMsg;
+import net.covers1624.curl4j.core.Memory;
+import net.covers1624.curl4j.core.Pointer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static net.covers1624.curl4j.CURL.*;
+
+/**
+ * A single thread which owns a curl_multi handle and drives every
+ * transfer attached to it.
+ * <p>
+ * curl_multi handles are not thread safe, all operations on the multi handle,
+ * and the easy handles attached to it, happen on the reactor thread. Other
+ * threads submit work via {@link #execute(Runnable)}, which wakes the reactor
+ * out of {@code curl_multi_poll}.
+ * <p>
+ * Created by covers1624 on 18/10/26.
+ */
+final class MultiReactor implements Executor, AutoCloseable {
+
+    // Upper bound on how long we block in poll, curl will shorten this if it has timers pending.
+    private static final int POLL_TIMEOUT_MS = 1000;
+
+    private final long multi = curl_multi_init();
+    private final Thread thread;
+
+    // Only touched from the reactor thread, or after termination whilst holding the tasks lock.
+    private final Map<Long, Transfer> transfers = new HashMap<>();
+
+    // Guards the task queue and the termination state.
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private volatile boolean closed;
+    private boolean terminated;
+
+    /**
+     * @param name      The name of the reactor thread.
+     * @param multiplex If HTTP/2 multiplexing should be enabled, allowing transfers to the same
+     *                  origin to share a single connection.
+     */
+    MultiReactor(String name, boolean multiplex) {
+        curl_multi_setopt(multi, CURLMOPT_PIPELINING, multiplex ? CURLPIPE_MULTIPLEX : CURLPIPE_NOTHING);
+        thread = new Thread(this::run);
+        thread.setName(name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Attach a curl handle to this reactor and begin driving it.
+     * <p>
+     * All options must be set on the curl handle before calling this method,
+     * the handle must not be touched outside the reactor thread until the transfer
+     * completes, or it is detached via {@link #remove}.
+     *
+     * @param curl     The curl handle.
+     * @param transfer The transfer to notify.
+     */
+    void add(long curl, Transfer transfer) {
+        execute(() -> {
+            if (closed) {
+                transfer.onError(new Curl4jHttpException("Engine closed."));
+                return;
+            }
+            int ret = curl_multi_add_handle(multi, curl);
+            if (ret != CURLM_OK) {
+                transfer.onError(new Curl4jHttpException("Failed to add handle to reactor: " + curl_multi_strerror(ret)));
+                return;
+            }
+            transfers.put(curl, transfer);
+        });
+    }
+
+    /**
+     * Detach a curl handle from this reactor, aborting the transfer if it is still running.
+     * <p>
+     * Blocks until the handle has been detached. Once this method returns, no further
+     * callbacks will be fired for the transfer.
+     *
+     * @param curl The curl handle.
+     */
+    void remove(long curl) {
+        if (inReactorThread()) {
+            removeNow(curl);
+            return;
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        execute(() -> {
+            removeNow(curl);
+            future.complete(null);
+        });
+        future.join();
+    }
+
+    /**
+     * Abort a transfer, if it is still attached to this reactor.
+     * <p>
+     * If it is, the handle is detached and {@link Transfer#onError} is fired from the reactor
+     * thread. Does not block, and does nothing if the transfer has already completed, even if
+     * the curl handle has since been re-used by another transfer.
+     *
+     * @param curl     The curl handle.
+     * @param transfer The transfer the handle was attached with.
+     */
+    void cancel(long curl, Transfer transfer) {
+        execute(() -> {
+            if (transfers.remove(curl, transfer)) {
+                curl_multi_remove_handle(multi, curl);
+                transfer.onError(new Curl4jHttpException("Transfer cancelled."));
+            }
+        });
+    }
+
+    /**
+     * Unpause the receiving side of a transfer.
+     *
+     * @param curl The curl handle.
+     */
+    void unpause(long curl) {
+        execute(() -> {
+            if (transfers.containsKey(curl)) {
+                curl_easy_pause(curl, CURLPAUSE_RECV_CONT);
+            }
+        });
+    }
+
+    /**
+     * @return If the calling thread is the reactor thread.
+     */
+    boolean inReactorThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Run a task on the reactor thread.
+     * <p>
+     * Once the reactor has terminated, tasks are run inline on the calling thread.
+     * Tasks must tolerate the reactor having no attached transfers.
+     *
+     * @param task The task.
+     */
+    @Override
+    public void execute(Runnable task) {
+        synchronized (tasks) {
+            if (!terminated) {
+                tasks.add(task);
+                curl_multi_wakeup(multi);
+                return;
+            }
+        }
+        task.run();
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+
+        synchronized (tasks) {
+            closed = true;
+            if (!terminated) {
+                curl_multi_wakeup(multi);
+            }
+        }
+        if (inReactorThread()) return;
+
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void removeNow(long curl) {
+        if (transfers.remove(curl) != null) {
+            curl_multi_remove_handle(multi, curl);
+        }
+    }
+
+    private void run() {
+        try (Memory.Stack stack = Memory.pushStack()) {
+            Pointer nHandles = stack.mallocPointer();
+            while (!closed) {
+                runTasks();
+
+                int ret = curl_multi_perform(multi, nHandles);
+                if (ret != CURLM_OK) {
+                    failAll(new Curl4jHttpException("Curl multi returned error: " + curl_multi_strerror(ret)));
+                    continue;
+                }
+                readMessages(nHandles);
+
+                ret = curl_multi_poll(multi, Memory.NULL, 0, POLL_TIMEOUT_MS, null);
+                if (ret != CURLM_OK) {
+                    failAll(new Curl4jHttpException("Curl multi poll returned error: " + curl_multi_strerror(ret)));
+                }
+            }
+        } finally {
+            synchronized (tasks) {
+                terminated = true;
+                runTasks();
+                failAll(new Curl4jHttpException("Engine closed."));
+                curl_multi_cleanup(multi);
+            }
+        }
+    }
+
+    private void runTasks() {
+        List<Runnable> toRun;
+        synchronized (tasks) {
+            if (tasks.isEmpty()) return;
+            toRun = new ArrayList<>(tasks);
+            tasks.clear();
+        }
+        for (Runnable task : toRun) {
+            try {
+                task.run();
+            } catch (Throwable ex) {
+                System.err.println("[curl4j] Exception thrown by reactor task.");
+                ex.printStackTrace(System.err);
+            }
+        }
+    }
+
+    private void readMessages(Pointer nMsgs) {
+        // curl multi puts the curl results into a consumable list of messages for us to process
+        // currently (curl 8.2.1) only has a single CURLMSG result type.
+        CURLMsg msg;
+        while ((msg = curl_multi_info_read(multi, nMsgs)) != null) {
+            if (msg.msg() != CURLMSG_DONE) continue;
+
+            // The message is invalidated when the handle is removed, read everything first.
+            long curl = msg.easy_handle();
+            int result = (int) msg.data();
+            Transfer transfer = transfers.remove(curl);
+            curl_multi_remove_handle(multi, curl);
+            if (transfer != null) {
+                transfer.onDone(result);
+            }
+        }
+    }
+
+    private void failAll(Curl4jHttpException ex) {
+        // Detach everything before notifying, onError may re-enter remove, which must find nothing.
+        List<Transfer> failed = new ArrayList<>(transfers.values());
+        for (Long curl : transfers.keySet()) {
+            curl_multi_remove_handle(multi, curl);
+        }
+        transfers.clear();
+        for (Transfer transfer : failed) {
+            try {
+                transfer.onError(ex);
+            } catch (Throwable ex2) {
+                System.err.println("[curl4j] Exception thrown whilst failing transfer.");
+                ex2.printStackTrace(System.err);
+            }
+        }
+    }
+
+    /**
+     * A transfer driven by a {@link MultiReactor}.
+     * <p>
+     * These methods are called from the reactor thread, after the handle
+     * has been detached from the reactor.
+     */
+    interface Transfer {
+
+        /**
+         * Called when curl has finished the transfer.
+         *
+         * @param result The CURLcode result of the transfer.
+         */
+        void onDone(int result);
+
+        /**
+         * Called when the reactor was unable to drive the transfer.
+         *
+         * @param ex The exception.
+         */
+        void onError(Curl4jHttpException ex);
+    }
+}
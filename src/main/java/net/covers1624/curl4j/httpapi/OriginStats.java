@@ -0,0 +1,59 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.curl4j.httpapi;
+
+/**
+ * Aggregated latencies of all transfers to a single origin.
+ * <p>
+ * Each histogram records the time spent in one phase of a transfer, see {@link TransferStats}.
+ * Connection phases are only recorded for transfers which opened a new connection.
+ * <p>
+ * Created by covers1624 on 18/10/26.
+ */
+public final class OriginStats {
+
+    /**
+     * Time spent resolving the host name.
+     */
+    public final LatencyHistogram nameLookup = new LatencyHistogram();
+    /**
+     * Time spent establishing the TCP connection.
+     */
+    public final LatencyHistogram connect = new LatencyHistogram();
+    /**
+     * Time spent in the TLS handshake.
+     */
+    public final LatencyHistogram tls = new LatencyHistogram();
+    /**
+     * Time between sending the request and receiving the first byte of the response.
+     */
+    public final LatencyHistogram server = new LatencyHistogram();
+    /**
+     * Total time of the transfer.
+     */
+    public final LatencyHistogram total = new LatencyHistogram();
+
+    void record(TransferStats stats) {
+        if (!stats.reusedConnection()) {
+            nameLookup.record(stats.nameLookupDuration());
+            connect.record(stats.connectDuration());
+            if (stats.appConnectTime() > 0) {
+                tls.record(stats.tlsDuration());
+            }
+        }
+        server.record(stats.serverDuration());
+        total.record(stats.totalTime());
+    }
+
+    @Override
+    public String toString() {
+        return "OriginStats{"
+                + "nameLookup=" + nameLookup
+                + ", connect=" + connect
+                + ", tls=" + tls
+                + ", server=" + server
+                + ", total=" + total
+                + '}';
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.curl4j.httpapi;
+
+import net.covers1624.curl4j.util.CurlOutput;
+import net.covers1624.curl4j.util.HeaderCollector;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+
+import static net.covers1624.curl4j.CURL.*;
+
+/**
+ * A {@link CurlOutput} writing to a file, which records its progress in a
+ * sidecar journal so an interrupted download can be resumed.
+ * <p>
+ * The journal stores the URL, the response validator ({@code ETag} or {@code Last-Modified})
+ * and the last offset known to be durable on disk. On the next attempt, the download is resumed
+ * from that offset via {@link net.covers1624.curl4j.CURL#CURLOPT_RANGE}, guarded by
+ * an {@code If-Range} header. If the server returns the full body instead, the file is rewritten
+ * from the start. Any other response, such as a transient error, leaves the file and journal
+ * untouched, and fails the request.
+ * <p>
+ * Created by covers1624 on 18/10/26.
+ */
+final class ResumableFileOutput extends CurlOutput {
+
+    private final Journal journal;
+
+    private ResumableFileOutput(Journal journal) {
+        super(journal::open);
+        this.journal = journal;
+    }
+
+    /**
+     * Create a new resumable output.
+     * <p>
+     * If a journal exists for the given file and URL, the download will resume from
+     * the journal's offset.
+     *
+     * @param url             The URL being downloaded.
+     * @param destFile        The destination file.
+     * @param headerCollector The collector for the response headers, used to find the validator.
+     * @return The output.
+     */
+    static ResumableFileOutput create(String url, Path destFile, HeaderCollector headerCollector) {
+        return new ResumableFileOutput(new Journal(url, destFile, headerCollector));
+    }
+
+    /**
+     * @return The value for the {@code If-Range} header, or {@code null} if we are not resuming.
+     */
+    @Nullable String ifRange() {
+        return journal.resumeOffset > 0 ? journal.resumeValidator : null;
+    }
+
+    @Override
+    public void apply(long curl) {
+        super.apply(curl);
+        journal.curl = curl;
+        if (journal.resumeOffset > 0) {
+            // Not CURLOPT_RESUME_FROM_LARGE, curl fails the transfer if a resumed GET gets a 200,
+            // which is exactly what the server sends when If-Range no longer matches.
+            curl_easy_setopt(curl, CURLOPT_RANGE, journal.resumeOffset + "-");
+        }
+    }
+
+    /**
+     * Finish the download, deleting the journal if it was successful.
+     *
+     * @param responseCode The response code of the transfer.
+     * @throws IOException If the server did not respond with the file, or the journal could not be deleted.
+     */
+    void complete(long responseCode) throws IOException {
+        if (!journal.accepts(responseCode)) {
+            throw new Curl4jHttpException("Unexpected response code " + responseCode + " for resumable download, partial file left intact.");
+        }
+        if (journal.channel == null && responseCode == 200) {
+            // Empty body, curl never asked us to write. The file must still be rewritten.
+            journal.open().close();
+        }
+        journal.complete = true;
+        Files.deleteIfExists(journal.journalFile);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            // Record how far we got, so the next attempt can pick up from here.
+            if (!journal.complete) {
+                journal.sync();
+            }
+        } finally {
+            super.close();
+        }
+    }
+
+    private static final class Journal implements WritableByteChannel {
+
+        // How often we force the file to disk and record our progress.
+        private static final long SYNC_INTERVAL = 8 * 1024 * 1024;
+
+        private final String url;
+        private final Path destFile;
+        private final Path journalFile;
+        private final HeaderCollector headerCollector;
+
+        private long resumeOffset;
+        private @Nullable String resumeValidator;
+
+        private long curl;
+        private @Nullable FileChannel channel;
+        private @Nullable String validator;
+        private long position;
+        private long synced;
+        private boolean complete;
+
+        private Journal(String url, Path destFile, HeaderCollector headerCollector) {
+            this.url = url;
+            this.destFile = destFile;
+            this.headerCollector = headerCollector;
+            journalFile = destFile.resolveSibling(destFile.getFileName() + ".resume");
+            load();
+        }
+
+        private void load() {
+            if (Files.notExists(journalFile) || Files.notExists(destFile)) return;
+
+            Properties props = new Properties();
+            try (InputStream is = Files.newInputStream(journalFile)) {
+                props.load(is);
+                if (!url.equals(props.getProperty("url"))) return;
+
+                String validator = props.getProperty("validator");
+                long offset = Long.parseLong(props.getProperty("offset", "0"));
+                if (validator == null || offset <= 0) return;
+
+                // Never trust the journal beyond what is actually on disk.
+                resumeOffset = Math.min(offset, Files.size(destFile));
+                resumeValidator = validator;
+            } catch (IOException | NumberFormatException ignored) {
+                // Corrupt or unreadable journal, just start again.
+            }
+        }
+
+        // 200 rewrites the file, 206 only if we asked to resume. Everything else is not our file.
+        private boolean accepts(long code) {
+            return code == 200 || code == 206 && resumeOffset > 0;
+        }
+
+        // Called by CurlOutput when curl delivers the first chunk of the body.
+        private WritableByteChannel open() throws IOException {
+            long code = curl_easy_getinfo_long(curl, CURLINFO_RESPONSE_CODE);
+            if (!accepts(code)) {
+                // Error page or similar, discard it without touching the file or journal.
+                // The request is failed once the transfer completes.
+                return new DiscardingChannel();
+            }
+
+            Path parent = destFile.getParent();
+            if (parent != null && Files.notExists(parent)) {
+                Files.createDirectories(parent);
+            }
+            channel = FileChannel.open(destFile, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+            // 206 means the server accepted our If-Range, 200 is a full body.
+            position = code == 206 ? resumeOffset : 0;
+            channel.truncate(position);
+            channel.position(position);
+            synced = position;
+            if (position == 0) {
+                // Starting from scratch, any existing journal is stale.
+                Files.deleteIfExists(journalFile);
+            }
+
+            validator = findValidator(headerCollector);
+            return this;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            assert channel != null;
+
+            int written = channel.write(src);
+            position += written;
+            if (position - synced >= SYNC_INTERVAL) {
+                sync();
+            }
+            return written;
+        }
+
+        private void sync() throws IOException {
+            // Nothing written, or nothing we could validate a resume against.
+            if (channel == null || !channel.isOpen() || validator == null) return;
+
+            channel.force(false);
+            synced = position;
+
+            Properties props = new Properties();
+            props.setProperty("url", url);
+            props.setProperty("validator", validator);
+            props.setProperty("offset", String.valueOf(synced));
+
+            Path tmp = journalFile.resolveSibling(journalFile.getFileName() + ".tmp");
+            try (OutputStream os = Files.newOutputStream(tmp)) {
+                props.store(os, "curl4j resumable download journal");
+            }
+            Files.move(tmp, journalFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel != null && channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+
+        private static final class DiscardingChannel implements WritableByteChannel {
+
+            private boolean open = true;
+
+            @Override
+            public int write(ByteBuffer src) {
+                int len = src.remaining();
+                src.position(src.limit());
+                return len;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return open;
+            }
+
+            @Override
+            public void close() {
+                open = false;
+            }
+        }
+
+        private static @Nullable String findValidator(HeaderCollector headers) {
+            // Strong ETags are preferred, weak ETags can't be used with If-Range.
+            String etag = headers.getFirst("ETag");
+            if (etag != null && !etag.startsWith("W/")) return etag;
+
+            return headers.getFirst("Last-Modified");
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.curl4j.httpapi;
+
+import net.covers1624.curl4j.CURLMsg;
+import net.covers1624.curl4j.CurlWriteCallback;
+import net.covers1624.curl4j.core.Memory;
+import net.covers1624.curl4j.core.NativeArena;
+import net.covers1624.curl4j.core.Pointer;
+import net.covers1624.curl4j.util.CurlHandle;
+import net.covers1624.curl4j.util.CurlMultiHandle;
+import net.covers1624.curl4j.util.HeaderCollector;
+import net.covers1624.curl4j.util.SListHeaderWrapper;
+import net.covers1624.quack.net.httpapi.HeaderList;
+import net.covers1624.quack.net.httpapi.RequestListener;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import static net.covers1624.curl4j.CURL.*;
+
+/**
+ * Downloads a file over multiple connections, each fetching its own byte range.
+ * <p>
+ * All segments are driven from a single curl_multi handle on the calling thread,
+ * and written with positional writes into a pre-sized file.
+ * <p>
+ * Created by covers1624 on 18/10/26.
+ */
+final class SegmentedDownload {
+
+    // Don't split files into segments smaller than this.
+    private static final long MIN_SEGMENT_SIZE = 1024 * 1024;
+    // Upper bound on how long we block in poll, curl will shorten this if it has timers pending.
+    private static final int POLL_TIMEOUT_MS = 1000;
+
+    private final Curl4jEngineRequest request;
+    private final Curl4jHttpEngine engine;
+    private final @Nullable String origin;
+    private final Path destFile;
+    private final int maxSegments;
+
+    SegmentedDownload(Curl4jEngineRequest request, Curl4jHttpEngine engine, @Nullable String origin, Path destFile, int maxSegments) {
+        this.request = request;
+        this.engine = engine;
+        this.origin = origin;
+        this.destFile = destFile;
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * Execute the download.
+     *
+     * @return The response, or {@code null} if the server does not support
+     * range requests, and a regular download should be performed instead.
+     * @throws IOException If the download failed.
+     */
+    @Nullable
+    Curl4jEngineResponse execute() throws IOException {
+        HeaderList responseHeaders = new HeaderList();
+        long length = probe(responseHeaders);
+        if (length < 2 * MIN_SEGMENT_SIZE) return null;
+
+        int segments = (int) Math.min(maxSegments, length / MIN_SEGMENT_SIZE);
+        download(length, segments);
+        return request.fileResponse(200, responseHeaders, destFile);
+    }
+
+    // Returns the length of the file, or -1 if the server can't serve it in segments.
+    private long probe(HeaderList responseHeaders) throws IOException {
+        try (HandlePool<CurlHandle>.Entry entry = engine.getHandle(origin);
+             SListHeaderWrapper headers = new SListHeaderWrapper(request.headers().toStrings());
+             HeaderCollector headerCollector = request.makeHeaderCollector()) {
+            CurlHandle handle = entry.handle;
+            applyOptions(handle, headers);
+            headerCollector.apply(handle);
+            curl_easy_setopt(handle.curl, CURLOPT_NOBODY, true);
+
+            // If the probe fails for any reason, let the regular download deal with it.
+            int result = curl_easy_perform(handle.curl);
+            engine.transferCompleted(handle, result);
+            if (result != CURLE_OK) return -1;
+            if (curl_easy_getinfo_long(handle.curl, CURLINFO_RESPONSE_CODE) != 200) return -1;
+
+            headerCollector.forEach(responseHeaders::add);
+            String acceptRanges = responseHeaders.get("Accept-Ranges");
+            if (acceptRanges == null || !acceptRanges.toLowerCase(Locale.ROOT).contains("bytes")) return -1;
+
+            return curl_easy_getinfo_long(handle.curl, CURLINFO_CONTENT_LENGTH_DOWNLOAD_T);
+        }
+    }
+
+    private void download(long length, int segments) throws IOException {
+        Path parent = destFile.getParent();
+        if (parent != null && Files.notExists(parent)) {
+            Files.createDirectories(parent);
+        }
+
+        List<Segment> active = new ArrayList<>(segments);
+        try (FileChannel channel = FileChannel.open(destFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             // Each segment must get its own connection, never multiplex them over one.
+             HandlePool<CurlMultiHandle>.Entry multiEntry = engine.getMultiHandle(origin, false);
+             Memory.Stack stack = Memory.pushStack()) {
+            long multi = multiEntry.handle.multi;
+            // Size the file up front, segments write into their own regions.
+            channel.write(ByteBuffer.allocate(1), length - 1);
+
+            try {
+                long segmentSize = length / segments;
+                for (int i = 0; i < segments; i++) {
+                    long start = i * segmentSize;
+                    long end = i == segments - 1 ? length - 1 : start + segmentSize - 1;
+                    Segment segment = new Segment(engine.getHandle(origin), channel, start, end);
+                    active.add(segment);
+                    segment.apply();
+                    int ret = curl_multi_add_handle(multi, segment.handle.curl);
+                    if (ret != CURLM_OK) throw new Curl4jHttpException("Failed to add segment: " + curl_multi_strerror(ret));
+                    segment.added = true;
+                }
+                drive(multi, stack.mallocPointer(), active, length);
+            } finally {
+                // Removing the handles aborts any segments still running.
+                for (Segment segment : active) {
+                    if (segment.added) {
+                        curl_multi_remove_handle(multi, segment.handle.curl);
+                    }
+                    segment.close();
+                }
+            }
+        }
+    }
+
+    private void drive(long multi, Pointer nHandles, List<Segment> active, long length) throws IOException {
+        RequestListener listener = request.listener();
+        int running = active.size();
+        while (running > 0) {
+            int ret = curl_multi_perform(multi, nHandles);
+            if (ret != CURLM_OK) throw new Curl4jHttpException("Curl multi returned error: " + curl_multi_strerror(ret));
+
+            // curl multi puts the curl results into a consumable list of messages for us to process
+            CURLMsg msg;
+            while ((msg = curl_multi_info_read(multi, nHandles)) != null) {
+                if (msg.msg() != CURLMSG_DONE) continue;
+                Segment segment = find(active, msg.easy_handle());
+                if (segment == null) continue;
+
+                int result = (int) msg.data();
+                curl_multi_remove_handle(multi, segment.handle.curl);
+                segment.added = false;
+                segment.finish(result);
+                running--;
+            }
+
+            if (listener != null) {
+                long done = 0;
+                for (Segment segment : active) {
+                    done += segment.position - segment.start;
+                }
+                listener.onDownload(length, done);
+            }
+
+            if (running > 0) {
+                ret = curl_multi_poll(multi, Memory.NULL, 0, POLL_TIMEOUT_MS, null);
+                if (ret != CURLM_OK) throw new Curl4jHttpException("Curl multi poll returned error: " + curl_multi_strerror(ret));
+            }
+        }
+    }
+
+    private void applyOptions(CurlHandle handle, SListHeaderWrapper headers) throws IOException {
+        request.setupHandle(handle);
+        headers.apply(handle);
+        for (Consumer<CurlHandle> customOption : request.customOptions()) {
+            customOption.accept(handle);
+        }
+    }
+
+    private static @Nullable Segment find(List<Segment> segments, long curl) {
+        for (Segment segment : segments) {
+            if (segment.handle.curl == curl) return segment;
+        }
+        return null;
+    }
+
+    private final class Segment implements AutoCloseable {
+
+        private final HandlePool<CurlHandle>.Entry entry;
+        private final CurlHandle handle;
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final NativeArena arena = new NativeArena();
+        private final SListHeaderWrapper headers;
+        private final CurlWriteCallback writeCallback;
+
+        private long position;
+        private boolean added;
+        private @Nullable ByteBuffer view;
+        private @Nullable IOException writeError;
+
+        private Segment(HandlePool<CurlHandle>.Entry entry, FileChannel channel, long start, long end) {
+            this.entry = entry;
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            handle = entry.handle;
+            position = start;
+            headers = new SListHeaderWrapper(request.headers().toStrings(), arena);
+            writeCallback = new CurlWriteCallback((ptr, size, nmemb, userdata) -> {
+                int rs = (int) (size * nmemb);
+                // More than we asked for, the server ignored our range. Abort.
+                if (position + rs > end + 1) return 0;
+
+                view = view == null ? Memory.newDirectByteBuffer(ptr, rs) : Memory.repointDirectByteBuffer(view, ptr, rs);
+                try {
+                    while (view.hasRemaining()) {
+                        position += channel.write(view, position);
+                    }
+                } catch (IOException ex) {
+                    writeError = ex;
+                    return 0;
+                }
+                return rs;
+            });
+        }
+
+        private void apply() throws IOException {
+            applyOptions(handle, headers);
+            curl_easy_setopt(handle.curl, CURLOPT_RANGE, start + "-" + end);
+            curl_easy_setopt(handle.curl, CURLOPT_WRITEFUNCTION, writeCallback);
+        }
+
+        private void finish(int result) throws IOException {
+            engine.transferCompleted(handle, result);
+            if (writeError != null) throw new IOException("Failed to write segment " + start + "-" + end, writeError);
+            if (result != CURLE_OK) {
+                throw new Curl4jHttpException("Curl returned error: " + handle.errorBuffer + "(" + curl_easy_strerror(result) + ")");
+            }
+            long code = curl_easy_getinfo_long(handle.curl, CURLINFO_RESPONSE_CODE);
+            if (code != 206) throw new Curl4jHttpException("Expected 206 Partial Content for segment " + start + "-" + end + ", got " + code);
+            if (position != end + 1) throw new Curl4jHttpException("Segment " + start + "-" + end + " ended early at " + position);
+        }
+
+        @Override
+        public void close() {
+            writeCallback.close();
+            headers.close();
+            entry.close();
+            arena.close();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * This file is part of Quack and is Licensed under the MIT License.
+ */
+package net.covers1624.curl4j.httpapi;
+
+import static net.covers1624.curl4j.CURL.*;
+
+/**
+ * Timings and connection details of a single completed transfer.
+ * <p>
+ * All times are in microseconds, measured by curl from the start of the transfer
+ * until the given phase completed, so each includes all phases before it. The
+ * {@code *Duration} methods give the time spent in each individual phase.
+ * <p>
+ * Values which are not known, for example because the installed curl is too old,
+ * are {@code -1}. When an existing connection was re-used, the connect times are {@code 0}.
+ * <p>
+ * Created by covers1624 on 18/10/26.
+ */
+public final class TransferStats {
+
+    // Queried in one native call, must match the field order.
+    private static final int[] INFOS = {
+            CURLINFO_NAMELOOKUP_TIME_T,
+            CURLINFO_CONNECT_TIME_T,
+            CURLINFO_APPCONNECT_TIME_T,
+            CURLINFO_PRETRANSFER_TIME_T,
+            CURLINFO_STARTTRANSFER_TIME_T,
+            CURLINFO_TOTAL_TIME_T,
+            CURLINFO_REDIRECT_TIME_T,
+            CURLINFO_SIZE_DOWNLOAD_T,
+            CURLINFO_SIZE_UPLOAD_T,
+            CURLINFO_CONN_ID,
+            CURLINFO_XFER_ID,
+            CURLINFO_HTTP_VERSION,
+            CURLINFO_NUM_CONNECTS,
+            CURLINFO_REDIRECT_COUNT,
+    };
+
+    private final long nameLookup;
+    private final long connect;
+    private final long appConnect;
+    private final long preTransfer;
+    private final long startTransfer;
+    private final long total;
+    private final long redirect;
+    private final long bytesDownloaded;
+    private final long bytesUploaded;
+    private final long connectionId;
+    private final long transferId;
+    private final int httpVersion;
+    private final int newConnections;
+    private final int redirects;
+
+    private TransferStats(long[] values) {
+        nameLookup = values[0];
+        connect = values[1];
+        appConnect = values[2];
+        preTransfer = values[3];
+        startTransfer = values[4];
+        total = values[5];
+        redirect = values[6];
+        bytesDownloaded = values[7];
+        bytesUploaded = values[8];
+        connectionId = values[9];
+        transferId = values[10];
+        httpVersion = (int) values[11];
+        newConnections = (int) values[12];
+        redirects = (int) values[13];
+    }
+
+    /**
+     * Capture the stats of a completed transfer.
+     *
+     * @param curl The curl handle the transfer was performed on.
+     * @return The stats.
+     */
+    static TransferStats capture(long curl) {
+        long[] values = new long[INFOS.length];
+        curl_easy_getinfo_batch(curl, INFOS, values);
+        return new TransferStats(values);
+    }
+
+    // @formatter:off
+    /**
+     * @return Time until name resolution completed.
+     */
+    public long nameLookupTime() { return nameLookup; }
+    /**
+     * @return Time until the connection to the remote host, or proxy, was established.
+     */
+    public long connectTime() { return connect; }
+    /**
+     * @return Time until the TLS handshake completed, {@code 0} for plain text connections.
+     */
+    public long appConnectTime() { return appConnect; }
+    /**
+     * @return Time until the request was about to be sent.
+     */
+    public long preTransferTime() { return preTransfer; }
+    /**
+     * @return Time until the first byte of the response was received.
+     */
+    public long startTransferTime() { return startTransfer; }
+    /**
+     * @return Total time of the transfer.
+     */
+    public long totalTime() { return total; }
+    /**
+     * @return Time spent following redirects, before the final transfer started.
+     */
+    public long redirectTime() { return redirect; }
+    /**
+     * @return The number of body bytes received.
+     */
+    public long bytesDownloaded() { return bytesDownloaded; }
+    /**
+     * @return The number of body bytes sent.
+     */
+    public long bytesUploaded() { return bytesUploaded; }
+    /**
+     * @return The id of the connection used by the transfer. Requires curl 8.2.0.
+     */
+    public long connectionId() { return connectionId; }
+    /**
+     * @return The id of the transfer. Requires curl 8.2.0.
+     */
+    public long transferId() { return transferId; }
+    /**
+     * @return The HTTP version used, one of the {@code CURL_HTTP_VERSION_*} constants.
+     */
+    public int httpVersion() { return httpVersion; }
+    /**
+     * @return The number of new connections opened by the transfer.
+     */
+    public int newConnections() { return newConnections; }
+    /**
+     * @return The number of redirects followed.
+     */
+    public int redirects() { return redirects; }
+    // @formatter:on
+
+    /**
+     * @return If the transfer re-used an existing connection.
+     */
+    public boolean reusedConnection() {
+        return newConnections == 0;
+    }
+
+    /**
+     * @return Time spent resolving the host name.
+     */
+    public long nameLookupDuration() {
+        return nameLookup;
+    }
+
+    /**
+     * @return Time spent establishing the TCP connection, {@code 0} if the connection was re-used.
+     */
+    public long connectDuration() {
+        return connect > 0 ? connect - nameLookup : 0;
+    }
+
+    /**
+     * @return Time spent in the TLS handshake, {@code 0} if the connection was re-used, or is plain text.
+     */
+    public long tlsDuration() {
+        return appConnect > 0 && connect > 0 ? appConnect - connect : 0;
+    }
+
+    /**
+     * @return Time between sending the request and receiving the first byte of the response.
+     */
+    public long serverDuration() {
+        return startTransfer - preTransfer;
+    }
+
+    /**
+     * @return Time spent receiving the response, after the first byte.
+     */
+    public long downloadDuration() {
+        return total - startTransfer;
+    }
+
+    @Override
+    public String toString() {
+        return "TransferStats{"
+                + "dns=" + nameLookupDuration() + "us"
+                + ", connect=" + connectDuration() + "us"
+                + ", tls=" + tlsDuration() + "us"
+                + ", server=" + serverDuration() + "us"
+                + ", download=" + downloadDuration() + "us"
+                + ", total=" + total + "us"
+                + ", redirect=" + redirect + "us"
+                + ", down=" + bytesDownloaded
+                + ", up=" + bytesUploaded
+                + ", conn=" + connectionId
+                + ", xfer=" + transferId
+                + '}';
+    }
+}
@@ -26,6 +26,8 @@ public abstract class CurlInput implements Closeable, CurlBindable {
     private @Nullable CurlReadCallback readCallback;
     private @Nullable CurlSeekCallback seekCallback;
     private @Nullable ReadableByteChannel channel;
+    // Re-pointed at curl's buffer for each callback, avoids allocating a new buffer per chunk.
+    private @Nullable ByteBuffer view;
     private boolean closed;
 
     /**
@@ -144,10 +146,9 @@ public abstract class CurlInput implements Closeable, CurlBindable {
                 }
 
                 int rs = (int) (size * nmemb);
-                ByteBuffer buffer = Memory.newDirectByteBuffer(ptr, rs);
-                int len = channel.read(buffer);
+                view = view == null ? Memory.newDirectByteBuffer(ptr, rs) : Memory.repointDirectByteBuffer(view, ptr, rs);
+                int len = channel.read(view);
                 return len != -1 ? len : 0;
-
             });
         }
         return readCallback;
@@ -0,0 +1,192 @@
+package net.covers1624.curl4j.util;
+
+import net.covers1624.curl4j.CURL;
+import net.covers1624.curl4j.CurlCallback;
+import net.covers1624.curl4j.core.Memory;
+import net.covers1624.curl4j.core.NativeType;
+import net.covers1624.curl4j.curl_blob;
+import net.covers1624.curl4j.curl_slist;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A batch of curl options, which are applied to a handle with a single native call.
+ * <p>
+ * Options are packed into a native buffer as they are added, string options are encoded
+ * once, up front. A batch may be applied to any number of handles, and may be kept around
+ * for requests of the same shape. Options are applied in the order they were added.
+ * <p>
+ * The batch does not keep any {@link CurlCallback}, {@link curl_slist} or {@link curl_blob}
+ * alive, these must outlive any handle the batch is applied to, the same as with
+ * {@link CURL#curl_easy_setopt}.
+ * <p>
+ * The batch's memory is managed by the GC, it does not need to be closed.
+ *
+ * @author covers1624
+ */
+public class CurlOptionBatch implements CurlBindable {
+
+    // struct { int32 option; int32 type; int64 value; }
+    private static final int RECORD_SIZE = 16;
+    private static final int TYPE_VALUE = 0;
+    private static final int TYPE_STRING = 1;
+
+    private ByteBuffer records;
+    private ByteBuffer strings;
+    private int count;
+
+    public CurlOptionBatch() {
+        this(16);
+    }
+
+    /**
+     * @param expectedOptions The number of options this batch is expected to hold.
+     */
+    public CurlOptionBatch(int expectedOptions) {
+        records = allocate(Math.max(1, expectedOptions) * RECORD_SIZE);
+        strings = allocate(256);
+    }
+
+    /**
+     * Add a {@code CURLOPTTYPE_LONG}, {@code CURLOPTTYPE_OFF_T} or raw pointer option.
+     *
+     * @param opt   The option.
+     * @param value The value.
+     * @return The same batch.
+     */
+    public CurlOptionBatch set(@NativeType ("CURLoption") int opt, long value) {
+        return add(opt, TYPE_VALUE, value);
+    }
+
+    /**
+     * Add a boolean option.
+     * <p>
+     * This is equivalent to {@code set(opt, value ? 1 : 0)}.
+     *
+     * @param opt   The option.
+     * @param value The value.
+     * @return The same batch.
+     */
+    public CurlOptionBatch set(@NativeType ("CURLoption") int opt, boolean value) {
+        return set(opt, value ? 1 : 0);
+    }
+
+    /**
+     * Add a {@code CURLOPTTYPE_STRINGPOINT} option.
+     * <p>
+     * The string is encoded into the batch immediately.
+     *
+     * @param opt   The option.
+     * @param value The value. {@code null} to reset the option.
+     * @return The same batch.
+     */
+    public CurlOptionBatch set(@NativeType ("CURLoption") int opt, @Nullable String value) {
+        if (value == null) return set(opt, Memory.NULL);
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int offset = strings.position();
+        strings = ensureCapacity(strings, bytes.length + 1);
+        strings.put(bytes).put((byte) 0);
+        return add(opt, TYPE_STRING, offset);
+    }
+
+    /**
+     * Add a {@code CURLOPTTYPE_FUNCTIONPOINT} option.
+     *
+     * @param opt  The option.
+     * @param func The callback.
+     * @return The same batch.
+     */
+    public CurlOptionBatch set(@NativeType ("CURLoption") int opt, CurlCallback func) {
+        return set(opt, func.getFunctionAddress());
+    }
+
+    /**
+     * Add a {@code CURLOPTTYPE_SLISTPOINT} option.
+     *
+     * @param opt   The option.
+     * @param slist The list.
+     * @return The same batch.
+     */
+    public CurlOptionBatch set(@NativeType ("CURLoption") int opt, @Nullable curl_slist slist) {
+        return set(opt, slist != null ? slist.address : Memory.NULL);
+    }
+
+    /**
+     * Add a {@code CURLOPTTYPE_BLOB} option.
+     *
+     * @param opt  The option.
+     * @param blob The blob.
+     * @return The same batch.
+     */
+    public CurlOptionBatch set(@NativeType ("CURLoption") int opt, @Nullable curl_blob blob) {
+        return set(opt, blob != null ? blob.address : Memory.NULL);
+    }
+
+    /**
+     * @return The number of options in this batch.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Remove all options from this batch, keeping the memory for re-use.
+     *
+     * @return The same batch.
+     */
+    public CurlOptionBatch clear() {
+        records.clear();
+        strings.clear();
+        count = 0;
+        return this;
+    }
+
+    /**
+     * Apply all options to the given handle.
+     * <p>
+     * All options are applied, even if some fail.
+     *
+     * @param curl The handle.
+     * @return The first {@code CURLcode} which was not {@link CURL#CURLE_OK}, or {@link CURL#CURLE_OK}.
+     */
+    public @NativeType ("CURLcode") int applyTo(@NativeType ("CURL *") long curl) {
+        if (count == 0) return CURL.CURLE_OK;
+
+        return CURL.Functions.ncurl_easy_setopt_batch(
+                CURL.Functions.curl_easy_setopt,
+                curl,
+                Memory.getDirectByteBufferAddress(records),
+                count,
+                Memory.getDirectByteBufferAddress(strings)
+        );
+    }
+
+    @Override
+    public void apply(long curl) {
+        applyTo(curl);
+    }
+
+    private CurlOptionBatch add(int opt, int type, long value) {
+        records = ensureCapacity(records, RECORD_SIZE);
+        records.putInt(opt).putInt(type).putLong(value);
+        count++;
+        return this;
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int extra) {
+        if (buffer.remaining() >= extra) return buffer;
+
+        ByteBuffer newBuffer = allocate(Math.max(buffer.capacity() * 2, buffer.position() + extra));
+        buffer.flip();
+        newBuffer.put(buffer);
+        return newBuffer;
+    }
+
+    private static ByteBuffer allocate(int size) {
+        return ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+    }
+}
@@ -28,6 +28,8 @@ public class CurlOutput implements Closeable, CurlBindable {
 
     private @Nullable CurlWriteCallback callback;
     private @Nullable WritableByteChannel channel;
+    // Re-pointed at curl's data for each callback, avoids allocating a new buffer per chunk.
+    private @Nullable ByteBuffer view;
     private boolean closed;
 
     protected CurlOutput(OutputSupplier<WritableByteChannel> channelSupplier) {
@@ -103,8 +105,8 @@ public class CurlOutput implements Closeable, CurlBindable {
                 }
 
                 int rs = (int) (size * nmemb);
-                ByteBuffer buffer = Memory.newDirectByteBuffer(ptr, rs);
-                return channel.write(buffer);
+                view = view == null ? Memory.newDirectByteBuffer(ptr, rs) : Memory.repointDirectByteBuffer(view, ptr, rs);
+                return channel.write(view);
             });
         }
         return callback;
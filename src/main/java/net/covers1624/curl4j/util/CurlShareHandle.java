@@ -0,0 +1,166 @@
+package net.covers1624.curl4j.util;
+
+import net.covers1624.curl4j.CurlLockCallback;
+import net.covers1624.curl4j.CurlUnlockCallback;
+import net.covers1624.curl4j.core.Memory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static net.covers1624.curl4j.CURL.*;
+
+/**
+ * A simple resource management wrapper around a
+ * curl_share handle.
+ * <p>
+ * Curl requires the user to provide locking for shared data, this
+ * wrapper provides a separate Java lock for each {@code curl_lock_data}
+ * type, so handles only contend when accessing the same kind of data.
+ * <p>
+ * This handle must be cleaned with {@link #close()} or via Try-With-Resources,
+ * after all curl handles using it have been cleaned up, or detached. Alternatively,
+ * each user of the share may {@link #retain()} it, and {@link #release()} it once its
+ * curl handle has been cleaned up. The share is then only cleaned up once it has been
+ * closed, and the last user has released it.
+ *
+ * @author covers1624
+ */
+public class CurlShareHandle implements AutoCloseable {
+
+    public final long share;
+
+    private final ReentrantLock[] locks = new ReentrantLock[CURL_LOCK_DATA_LAST];
+    private final CurlLockCallback lockCallback = new CurlLockCallback((handle, data, access, userptr) -> lock(data).lock());
+    private final CurlUnlockCallback unlockCallback = new CurlUnlockCallback((handle, data, userptr) -> lock(data).unlock());
+
+    // One reference is held by the owner, released by close.
+    private final AtomicInteger refCount = new AtomicInteger(1);
+    private boolean closed;
+
+    /**
+     * Construct a new share handle, sharing the given data types.
+     *
+     * @param data The {@code curl_lock_data} types to share. See {@link #share(int)}.
+     * @throws IllegalStateException If curl does not support sharing any of the given data.
+     */
+    public CurlShareHandle(int... data) {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+
+        share = curl_share_init();
+        if (share == Memory.NULL) throw new OutOfMemoryError("Failed to create curl share handle.");
+
+        curl_share_setopt(share, CURLSHOPT_LOCKFUNC, lockCallback);
+        curl_share_setopt(share, CURLSHOPT_UNLOCKFUNC, unlockCallback);
+
+        for (int d : data) {
+            int ret = curl_share_setopt(share, CURLSHOPT_SHARE, d);
+            if (ret != CURLSHE_OK) {
+                close();
+                throw new IllegalStateException("Failed to share data " + d + ": " + curl_share_strerror(ret));
+            }
+        }
+    }
+
+    /**
+     * Start sharing the given data type.
+     * <p>
+     * Must be called before this share is attached to any curl handles.
+     *
+     * @param data The {@code curl_lock_data} type to share. See {@link net.covers1624.curl4j.CURL#CURL_LOCK_DATA_DNS} etc.
+     * @return {@code true} if curl accepted the data type, {@code false} if the current
+     * curl instance does not support sharing it.
+     */
+    public boolean share(int data) {
+        return curl_share_setopt(share, CURLSHOPT_SHARE, data) == CURLSHE_OK;
+    }
+
+    /**
+     * Attach this share to the given curl handle.
+     * <p>
+     * This must be re-applied after {@code curl_easy_reset}.
+     *
+     * @param handle The curl handle.
+     */
+    public void apply(CurlHandle handle) {
+        apply(handle.curl);
+    }
+
+    /**
+     * Attach this share to the given curl handle.
+     * <p>
+     * This must be re-applied after {@code curl_easy_reset}.
+     *
+     * @param curl The curl handle.
+     */
+    public void apply(long curl) {
+        curl_easy_setopt(curl, CURLOPT_SHARE, share);
+    }
+
+    /**
+     * Register a new user of this share.
+     * <p>
+     * The share will not be cleaned up until the user calls {@link #release()}.
+     *
+     * @throws IllegalStateException If the share has already been cleaned up.
+     */
+    public void retain() {
+        int refs;
+        do {
+            refs = refCount.get();
+            if (refs <= 0) throw new IllegalStateException("Share already cleaned up.");
+        }
+        while (!refCount.compareAndSet(refs, refs + 1));
+    }
+
+    /**
+     * Release a user registered with {@link #retain()}.
+     * <p>
+     * This must be called after the user's curl handle has been cleaned up. If the
+     * share has been closed, and this is the last user, the share is cleaned up.
+     *
+     * @throws IllegalStateException If the share is cleaned up, and curl reports it is still in use.
+     */
+    public void release() {
+        if (refCount.decrementAndGet() == 0) {
+            cleanup();
+        }
+    }
+
+    private ReentrantLock lock(int data) {
+        return locks[data >= 0 && data < locks.length ? data : CURL_LOCK_DATA_NONE];
+    }
+
+    /**
+     * Cleanup this share handle.
+     * <p>
+     * If any users registered with {@link #retain()} have not yet been released,
+     * the cleanup is deferred until the last of them is released.
+     *
+     * @throws IllegalStateException If the share is still in use by any curl handles.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+
+        try {
+            release();
+        } catch (IllegalStateException ex) {
+            // Curl refused, allow the owner to try again.
+            refCount.set(1);
+            closed = false;
+            throw ex;
+        }
+    }
+
+    private void cleanup() {
+        int ret = curl_share_cleanup(share);
+        if (ret != CURLSHE_OK) {
+            throw new IllegalStateException("Failed to cleanup curl share: " + curl_share_strerror(ret));
+        }
+        lockCallback.close();
+        unlockCallback.close();
+    }
+}
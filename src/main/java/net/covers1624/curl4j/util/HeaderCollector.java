@@ -1,70 +1,277 @@
 package net.covers1624.curl4j.util;
 
+import net.covers1624.curl4j.CURL;
 import net.covers1624.curl4j.CurlHeaderCallback;
+import net.covers1624.curl4j.curl_header;
+import net.covers1624.curl4j.core.Memory;
 import org.jetbrains.annotations.Nullable;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
-import static net.covers1624.curl4j.CURL.CURLOPT_HEADERFUNCTION;
-import static net.covers1624.curl4j.CURL.curl_easy_setopt;
+import static net.covers1624.curl4j.CURL.*;
 
 /**
- * A simple wrapper around {@link CurlHeaderCallback} which
- * neatly collects all headers into a {@link Map}.
+ * A simple wrapper around {@link CurlHeaderCallback} which collects all headers.
  * <p>
- * This implementation uses a {@link LinkedHashMap}, maintaining the overall
- * order of headers, however, duplicate header names will not have their order
- * preserved.
- * // TODO HeaderList from quack as extension?
+ * Header lines are copied raw into a single growable buffer as curl delivers them,
+ * only the bounds of each name and value are recorded. Names and values are decoded
+ * on demand, so reading a couple of headers does not pay for decoding all of them.
+ * Common header names are shared instead of decoded.
+ * <p>
+ * Only the headers of the final response are kept, headers from intermediate responses
+ * (redirects, etc) are discarded.
+ * <p>
+ * Alternatively, the collector can read headers straight from curl's own header store
+ * via {@link CURL#curl_easy_header}, see {@link #HeaderCollector(boolean)}. In this mode no
+ * header callback is installed, and nothing is collected during the transfer. Headers are
+ * only available until the handle is reset.
  *
  * @author covers1624
  */
 public class HeaderCollector implements AutoCloseable, CurlBindable {
 
-    private final Map<String, List<String>> headers = new LinkedHashMap<>();
+    // @formatter:off
+    private static final String[] COMMON_NAMES = {
+            "Accept-Ranges", "Age", "Cache-Control", "Connection", "Content-Disposition", "Content-Encoding",
+            "Content-Length", "Content-Range", "Content-Type", "Date", "ETag", "Expires", "Keep-Alive",
+            "Last-Modified", "Location", "Server", "Set-Cookie", "Strict-Transport-Security", "Transfer-Encoding",
+            "Vary", "Via",
+    };
+    // @formatter:on
+
+    // Both the canonical and lower case (HTTP/2+) forms of each common name.
+    private static final byte[][] INTERNED_BYTES = new byte[COMMON_NAMES.length * 2][];
+    private static final String[] INTERNED = new String[COMMON_NAMES.length * 2];
+
+    static {
+        for (int i = 0; i < COMMON_NAMES.length; i++) {
+            String lower = COMMON_NAMES[i].toLowerCase(Locale.ROOT);
+            INTERNED[i * 2] = COMMON_NAMES[i];
+            INTERNED[i * 2 + 1] = lower;
+            INTERNED_BYTES[i * 2] = COMMON_NAMES[i].getBytes(StandardCharsets.US_ASCII);
+            INTERNED_BYTES[i * 2 + 1] = lower.getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    // The raw header bytes.
+    private byte[] data = new byte[1024];
+    private int length;
+    // For each header, the name start, name end, value start and value end within data.
+    private int[] index = new int[16 * 4];
+    private int count;
 
+    // Lazily decoded names and values.
+    private String[] names = new String[16];
+    private String[] values = new String[16];
+    private @Nullable Map<String, List<String>> headers;
+
+    private final boolean useCurlHeaders;
+    private long curl = Memory.NULL;
+
+    private @Nullable ByteBuffer view;
     private @Nullable CurlHeaderCallback callback;
     private boolean closed;
 
     public HeaderCollector() {
+        this(false);
+    }
+
+    /**
+     * @param useCurlHeaders If headers should be read from curl's header store, instead of
+     *                       collected via a callback. Ignored if the bound curl does not
+     *                       support {@link CURL#curl_easy_header}.
+     */
+    public HeaderCollector(boolean useCurlHeaders) {
+        this.useCurlHeaders = useCurlHeaders && isCurlEasyHeaderSupported();
+    }
+
+    /**
+     * @return If this collector reads headers from curl's header store.
+     */
+    public boolean usesCurlHeaders() {
+        return useCurlHeaders;
     }
 
     public CurlHeaderCallback callback() {
         if (closed) throw new IllegalStateException("Already closed");
+        if (useCurlHeaders) throw new IllegalStateException("Headers are read from curl, no callback is used.");
 
         if (callback == null) {
-            callback = new CurlHeaderCallback((header, userdata) -> {
-                int colon = header.indexOf(":");
-                if (colon == -1) {
-                    // Curl will give us all raw header lines, even for intermediate requests, (redirects, etc)
-                    if (header.startsWith("HTTP/")) {
-                        headers.clear();
-                    }
-                    // This is not a header, might be garbage or blank line.
-                    return;
+            callback = new CurlHeaderCallback() {
+                @Override
+                public long invokeData(long ptr, long size, long nmemb, long userdata) {
+                    int rs = (int) (size * nmemb);
+                    view = view == null ? Memory.newDirectByteBuffer(ptr, rs) : Memory.repointDirectByteBuffer(view, ptr, rs);
+                    onLine(view, rs);
+                    return rs;
                 }
 
-                String[] split = header.trim().split(":", 2);
-                headers.computeIfAbsent(split[0], e -> new ArrayList<>(1)).add(split[1].trim());
-            });
+                @Override
+                public void onHeader(String header, long userdata) {
+                    byte[] bytes = header.getBytes(StandardCharsets.UTF_8);
+                    onLine(ByteBuffer.wrap(bytes), bytes.length);
+                }
+            };
         }
         return callback;
     }
 
     @Override
     public void apply(long curl) {
+        if (useCurlHeaders) {
+            this.curl = curl;
+            return;
+        }
         curl_easy_setopt(curl, CURLOPT_HEADERFUNCTION, callback());
     }
 
+    /**
+     * Get the number of headers collected.
+     * <p>
+     * When reading from curl's header store, this takes a snapshot of the current headers
+     * for {@link #getName} and {@link #getValue}.
+     *
+     * @return The number of headers.
+     */
+    public int size() {
+        if (useCurlHeaders) {
+            loadCurlHeaders();
+        }
+        return count;
+    }
+
+    /**
+     * Get the name of the header at the given index.
+     *
+     * @param i The index.
+     * @return The name.
+     */
+    public String getName(int i) {
+        checkIndex(i);
+        String name = names[i];
+        if (name == null) {
+            int start = index[i * 4];
+            int end = index[i * 4 + 1];
+            name = intern(start, end);
+            if (name == null) {
+                name = decode(start, end);
+            }
+            names[i] = name;
+        }
+        return name;
+    }
+
+    /**
+     * Get the value of the header at the given index.
+     *
+     * @param i The index.
+     * @return The value.
+     */
+    public String getValue(int i) {
+        checkIndex(i);
+        String value = values[i];
+        if (value == null) {
+            value = decode(index[i * 4 + 2], index[i * 4 + 3]);
+            values[i] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Get the first value of the given header.
+     * <p>
+     * Header names are matched case-insensitively. Only the matching header is decoded.
+     *
+     * @param name The header name.
+     * @return The value, or {@code null} if the header does not exist.
+     */
+    public @Nullable String getFirst(String name) {
+        if (useCurlHeaders) {
+            curl_header header = curl_easy_header(curl(), name, 0, CURLH_HEADER, -1);
+            return header != null ? header.value() : null;
+        }
+        for (int i = 0; i < count; i++) {
+            if (nameMatches(i, name)) return getValue(i);
+        }
+        return null;
+    }
+
+    /**
+     * Get all values of the given header, in the order they were received.
+     * <p>
+     * Header names are matched case-insensitively.
+     *
+     * @param name The header name.
+     * @return The values, empty if the header does not exist.
+     */
+    public List<String> getValues(String name) {
+        List<String> values = new ArrayList<>(1);
+        if (useCurlHeaders) {
+            curl_header header = curl_easy_header(curl(), name, 0, CURLH_HEADER, -1);
+            if (header == null) return values;
+
+            long amount = header.amount();
+            values.add(header.value());
+            for (long i = 1; i < amount; i++) {
+                header = curl_easy_header(curl(), name, i, CURLH_HEADER, -1);
+                if (header != null) {
+                    values.add(header.value());
+                }
+            }
+            return values;
+        }
+        for (int i = 0; i < count; i++) {
+            if (nameMatches(i, name)) {
+                values.add(getValue(i));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Visit every header, in the order they were received.
+     *
+     * @param action The action to run for each name and value.
+     */
+    public void forEach(BiConsumer<String, String> action) {
+        if (useCurlHeaders) {
+            curl_header header = null;
+            while ((header = curl_easy_nextheader(curl(), CURLH_HEADER, -1, header)) != null) {
+                action.accept(header.name(), header.value());
+            }
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            action.accept(getName(i), getValue(i));
+        }
+    }
+
     /**
      * Get the collected headers.
+     * <p>
+     * This uses a {@link LinkedHashMap}, maintaining the overall order of headers,
+     * however, duplicate header names will not have their order preserved.
+     * <p>
+     * Prefer {@link #getFirst} or {@link #forEach} when not all headers are needed,
+     * this decodes every header.
      *
      * @return The headers.
      */
     public Map<String, List<String>> getHeaders() {
+        // Curl's headers may change as the transfer progresses, don't cache them.
+        if (headers == null || useCurlHeaders) {
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            forEach((name, value) -> headers.computeIfAbsent(name, e -> new ArrayList<>(1)).add(value));
+            this.headers = headers;
+        }
         return headers;
     }
 
@@ -73,4 +280,140 @@ public class HeaderCollector implements AutoCloseable, CurlBindable {
         if (callback != null) callback.close();
         closed = true;
     }
+
+    private void onLine(ByteBuffer src, int len) {
+        if (length + len > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + len));
+        }
+        int start = length;
+        int end = start + len;
+        src.get(data, start, len);
+
+        int colon = indexOf(start, end, (byte) ':');
+        if (colon == -1) {
+            // Curl will give us all raw header lines, even for intermediate requests, (redirects, etc)
+            if (startsWithHttp(start, end)) {
+                reset();
+            }
+            // This is not a header, might be garbage or blank line.
+            return;
+        }
+
+        if (count * 4 == index.length) {
+            index = Arrays.copyOf(index, index.length * 2);
+            names = Arrays.copyOf(names, count * 2);
+            values = Arrays.copyOf(values, count * 2);
+        }
+        int nameStart = skipWhitespace(start, colon);
+        int valueStart = skipWhitespace(colon + 1, end);
+        int i = count * 4;
+        index[i] = nameStart;
+        index[i + 1] = trimWhitespace(nameStart, colon);
+        index[i + 2] = valueStart;
+        index[i + 3] = trimWhitespace(valueStart, end);
+        count++;
+        length = end;
+        headers = null;
+    }
+
+    private long curl() {
+        if (curl == Memory.NULL) throw new IllegalStateException("Not applied to a handle.");
+        return curl;
+    }
+
+    private void loadCurlHeaders() {
+        reset();
+        forEach((name, value) -> {
+            if (count == names.length) {
+                names = Arrays.copyOf(names, count * 2);
+                values = Arrays.copyOf(values, count * 2);
+            }
+            names[count] = name;
+            values[count] = value;
+            count++;
+        });
+    }
+
+    private void reset() {
+        Arrays.fill(names, 0, count, null);
+        Arrays.fill(values, 0, count, null);
+        count = 0;
+        length = 0;
+        headers = null;
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= count) throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + count);
+    }
+
+    private boolean nameMatches(int i, String name) {
+        int start = index[i * 4];
+        int end = index[i * 4 + 1];
+        if (end - start != name.length()) {
+            // Only ASCII names can be compared byte for byte.
+            return !isAscii(name) && name.equalsIgnoreCase(getName(i));
+        }
+        for (int j = 0; j < name.length(); j++) {
+            char c = name.charAt(j);
+            if (c >= 0x80) return name.equalsIgnoreCase(getName(i));
+            if (toLower(data[start + j]) != toLower((byte) c)) return false;
+        }
+        return true;
+    }
+
+    private @Nullable String intern(int start, int end) {
+        int len = end - start;
+        outer:
+        for (int i = 0; i < INTERNED_BYTES.length; i++) {
+            byte[] bytes = INTERNED_BYTES[i];
+            if (bytes.length != len) continue;
+            for (int j = 0; j < len; j++) {
+                if (data[start + j] != bytes[j]) continue outer;
+            }
+            return INTERNED[i];
+        }
+        return null;
+    }
+
+    private String decode(int start, int end) {
+        return new String(data, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private int indexOf(int start, int end, byte b) {
+        for (int i = start; i < end; i++) {
+            if (data[i] == b) return i;
+        }
+        return -1;
+    }
+
+    private boolean startsWithHttp(int start, int end) {
+        return end - start >= 5
+                && data[start] == 'H'
+                && data[start + 1] == 'T'
+                && data[start + 2] == 'T'
+                && data[start + 3] == 'P'
+                && data[start + 4] == '/';
+    }
+
+    // Same rules as String.trim.
+    private int skipWhitespace(int start, int end) {
+        while (start < end && (data[start] & 0xFF) <= ' ') start++;
+        return start;
+    }
+
+    private int trimWhitespace(int start, int end) {
+        while (end > start && (data[end - 1] & 0xFF) <= ' ') end--;
+        return end;
+    }
+
+    private static boolean isAscii(String str) {
+        for (int i = 0; i < str.length(); i++) {
+            if (str.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
+    private static byte toLower(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
 }
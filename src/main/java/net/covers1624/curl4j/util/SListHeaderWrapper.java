@@ -1,6 +1,9 @@
 package net.covers1624.curl4j.util;
 
 import net.covers1624.curl4j.CURL;
+import net.covers1624.curl4j.core.Memory;
+import net.covers1624.curl4j.core.NativeArena;
+import net.covers1624.curl4j.core.NativeTypes;
 import net.covers1624.curl4j.curl_slist;
 import org.jetbrains.annotations.Nullable;
 
@@ -23,6 +26,7 @@ import static net.covers1624.curl4j.CURL.curl_easy_setopt;
 public class SListHeaderWrapper implements AutoCloseable, CurlBindable {
 
     private final List<String> headers = new ArrayList<>();
+    private final @Nullable NativeArena arena;
 
     private @Nullable curl_slist list;
     private boolean closed;
@@ -36,6 +40,7 @@ public class SListHeaderWrapper implements AutoCloseable, CurlBindable {
      */
     public SListHeaderWrapper(String... headers) {
         Collections.addAll(this.headers, headers);
+        arena = null;
     }
 
     /**
@@ -46,7 +51,24 @@ public class SListHeaderWrapper implements AutoCloseable, CurlBindable {
      * @param headers The headers.
      */
     public SListHeaderWrapper(List<String> headers) {
+        this(headers, null);
+    }
+
+    /**
+     * Create a new {@link SListHeaderWrapper} with the provided raw headers, allocated
+     * in the given {@link NativeArena}.
+     * <p>
+     * The list is built directly in the arena, instead of with {@link CURL#curl_slist_append}.
+     * It is released with the arena, and must not be used after the arena is closed.
+     * <p>
+     * Each line must be in valid http header format: {@code 'Name: Value'}
+     *
+     * @param headers The headers.
+     * @param arena   The arena to allocate the list in, {@code null} to let curl allocate it.
+     */
+    public SListHeaderWrapper(List<String> headers, @Nullable NativeArena arena) {
         this.headers.addAll(headers);
+        this.arena = arena;
     }
 
     /**
@@ -57,6 +79,7 @@ public class SListHeaderWrapper implements AutoCloseable, CurlBindable {
      */
     public SListHeaderWrapper(Map<String, List<String>> headers) {
         headers.forEach((name, values) -> values.forEach(value -> this.headers.add(name + ": " + value)));
+        arena = null;
     }
 
     /**
@@ -67,13 +90,36 @@ public class SListHeaderWrapper implements AutoCloseable, CurlBindable {
         if (headers.isEmpty()) return null;
 
         if (list == null) {
-            for (String header : headers) {
-                list = CURL.curl_slist_append(list, header);
+            if (arena != null) {
+                list = buildInArena(arena);
+            } else {
+                for (String header : headers) {
+                    list = CURL.curl_slist_append(list, header);
+                }
             }
         }
         return list;
     }
 
+    // Curl only reads header lists, so we can lay out the nodes ourselves.
+    private curl_slist buildInArena(NativeArena arena) {
+        int nodeSize = 2 * NativeTypes.POINTER_SIZE;
+        long head = Memory.NULL;
+        long prev = Memory.NULL;
+        for (String header : headers) {
+            long node = arena.nmalloc(nodeSize, NativeTypes.POINTER_SIZE);
+            Memory.putAddress(node, arena.allocUtf8(header));
+            Memory.putAddress(node + NativeTypes.POINTER_SIZE, Memory.NULL);
+            if (prev == Memory.NULL) {
+                head = node;
+            } else {
+                Memory.putAddress(prev + NativeTypes.POINTER_SIZE, node);
+            }
+            prev = node;
+        }
+        return new curl_slist(head);
+    }
+
     @Override
     public void apply(long curl) {
         curl_easy_setopt(curl, CURLOPT_HTTPHEADER, get());
@@ -81,7 +127,10 @@ public class SListHeaderWrapper implements AutoCloseable, CurlBindable {
 
     @Override
     public void close() {
-        CURL.curl_slist_free_all(list);
+        // Arena lists are released with the arena.
+        if (arena == null) {
+            CURL.curl_slist_free_all(list);
+        }
         closed = true;
     }
 }
@@ -0,0 +1,53 @@
+package net.covers1624.curl4j.util.internal;
+
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Backend for the short, high frequency libcurl calls made by {@link net.covers1624.curl4j.CURL}.
+ * <p>
+ * On Java 22+ these may be invoked through Foreign Function &amp; Memory downcalls instead
+ * of JNI. This is opt-in with the {@code net.covers1624.curl4j.ffm} system property.
+ * <p>
+ * Only scalar {@code curl_easy_getinfo} queries, {@code curl_multi_info_read} and
+ * {@code curl_multi_wakeup} are critical downcalls, they never block or call back into Java.
+ * {@code curl_easy_setopt} and {@code curl_multi_add_handle} may lock a curl_share through
+ * Java upcalls, and {@code curl_multi_poll} blocks, so these do a full thread state transition.
+ * Functions which drive transfers, such as {@code curl_easy_perform}, always go through JNI,
+ * so exceptions thrown inside callbacks can propagate.
+ * <p>
+ * Created by covers1624 on 18/10/26.
+ */
+@ApiStatus.Internal
+public interface CurlDowncalls {
+
+    CurlDowncalls INSTANCE = Internal.selectDowncalls();
+
+    int curl_easy_setopt(long curl, int opt, long value);
+
+    int curl_easy_getinfo(long curl, int info, long value);
+
+    int curl_multi_add_handle(long multi, long curl);
+
+    long curl_multi_info_read(long multi, long msgsInQueue);
+
+    int curl_multi_poll(long multi, long extraFds, int extraNfds, int timeoutMs, long numFds);
+
+    int curl_multi_wakeup(long multi);
+
+    class Internal {
+
+        private static CurlDowncalls selectDowncalls() {
+            if (Boolean.getBoolean("net.covers1624.curl4j.ffm")) {
+                try {
+                    // Java 22!
+                    Class.forName("java.lang.foreign.Linker");
+                    Class<?> clazz = Class.forName("net.covers1624.curl4j.util.internal.ForeignCurlDowncalls");
+                    return (CurlDowncalls) clazz.getConstructor().newInstance();
+                } catch (Throwable ex) {
+                    // Fall through to JNI.
+                }
+            }
+            return new JniCurlDowncalls();
+        }
+    }
+}
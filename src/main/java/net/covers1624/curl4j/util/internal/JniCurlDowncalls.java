@@ -0,0 +1,23 @@
+package net.covers1624.curl4j.util.internal;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import static net.covers1624.curl4j.CURL.Functions.*;
+
+/**
+ * The default {@link CurlDowncalls}, going through our JNI bindings.
+ * <p>
+ * Created by covers1624 on 18/10/26.
+ */
+@ApiStatus.Internal
+public class JniCurlDowncalls implements CurlDowncalls {
+
+    // @formatter:off
+    @Override public int curl_easy_setopt(long curl, int opt, long value) { return ncurl_easy_setopt(curl_easy_setopt, curl, opt, value); }
+    @Override public int curl_easy_getinfo(long curl, int info, long value) { return ncurl_easy_getinfo(curl_easy_getinfo, curl, info, value); }
+    @Override public int curl_multi_add_handle(long multi, long curl) { return ncurl_multi_add_handle(curl_multi_add_handle, multi, curl); }
+    @Override public long curl_multi_info_read(long multi, long msgsInQueue) { return ncurl_multi_info_read(curl_multi_info_read, multi, msgsInQueue); }
+    @Override public int curl_multi_poll(long multi, long extraFds, int extraNfds, int timeoutMs, long numFds) { return ncurl_multi_poll(curl_multi_poll, multi, extraFds, extraNfds, timeoutMs, numFds); }
+    @Override public int curl_multi_wakeup(long multi) { return ncurl_multi_wakeup(curl_multi_wakeup, multi); }
+    // @formatter:on
+}
@@ -10,10 +10,10 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 import static fi.iki.elonen.NanoHTTPD.Response.Status.OK;
+import static fi.iki.elonen.NanoHTTPD.Response.Status.REDIRECT;
 import static net.covers1624.curl4j.CURL.*;
 import static net.covers1624.curl4j.tests.TestWebServer.getBody;
 import static org.junit.jupiter.api.Assertions.*;
@@ -70,6 +70,78 @@ public class CURLTests extends TestBase {
         }
     }
 
+    @Test
+    public void testOptionBatch() throws IOException {
+        byte[] data = randomBytes(32);
+
+        curl_global_init(CURL_GLOBAL_DEFAULT);
+        long curl = curl_easy_init();
+
+        try (TestWebServer server = new TestWebServer()) {
+            server.addHandler("/", r -> {
+                assertEquals(NanoHTTPD.Method.PUT, r.getMethod());
+                return bytesResponse(OK, data);
+            });
+
+            curl_easy_reset(curl);
+
+            try (MemoryCurlOutput output = MemoryCurlOutput.create()) {
+                CurlOptionBatch options = new CurlOptionBatch(1)
+                        .set(CURLOPT_URL, server.addr("/"))
+                        .set(CURLOPT_CUSTOMREQUEST, "PUT")
+                        .set(CURLOPT_FOLLOWLOCATION, true)
+                        .set(CURLOPT_WRITEFUNCTION, output.callback());
+                assertEquals(4, options.size());
+                assertEquals(CURLE_OK, options.applyTo(curl));
+
+                int result = curl_easy_perform(curl);
+
+                assertEquals(CURLE_OK, result, () -> curl_easy_strerror(result));
+                assertEquals(200, curl_easy_getinfo_long(curl, CURLINFO_RESPONSE_CODE));
+                assertArrayEquals(data, output.bytes());
+            }
+        } finally {
+            curl_easy_cleanup(curl);
+            curl_global_cleanup();
+        }
+    }
+
+    @Test
+    public void testInfoBatch() throws IOException {
+        byte[] data = randomBytes(32);
+
+        curl_global_init(CURL_GLOBAL_DEFAULT);
+        long curl = curl_easy_init();
+
+        try (TestWebServer server = new TestWebServer()) {
+            server.addHandler("/", r -> bytesResponse(OK, data));
+
+            curl_easy_reset(curl);
+            curl_easy_setopt(curl, CURLOPT_URL, server.addr("/"));
+
+            try (MemoryCurlOutput output = MemoryCurlOutput.create()) {
+                curl_easy_setopt(curl, CURLOPT_WRITEFUNCTION, output.callback());
+
+                int result = curl_easy_perform(curl);
+                assertEquals(CURLE_OK, result, () -> curl_easy_strerror(result));
+
+                int[] infos = { CURLINFO_RESPONSE_CODE, CURLINFO_SIZE_DOWNLOAD_T, CURLINFO_TOTAL_TIME_T, CURLINFO_TOTAL_TIME };
+                long[] values = new long[infos.length];
+                assertEquals(CURLE_OK, curl_easy_getinfo_batch(curl, infos, values));
+                assertEquals(200, values[0]);
+                assertEquals(data.length, values[1]);
+                assertEquals(data.length, curl_easy_getinfo_off_t(curl, CURLINFO_SIZE_DOWNLOAD_T));
+                assertTrue(values[2] > 0);
+                assertTrue(Double.longBitsToDouble(values[3]) > 0);
+
+                assertThrows(IllegalArgumentException.class, () -> curl_easy_getinfo_off_t(curl, CURLINFO_RESPONSE_CODE));
+            }
+        } finally {
+            curl_easy_cleanup(curl);
+            curl_global_cleanup();
+        }
+    }
+
     @Test
     public void testUpload() throws IOException {
         byte[] data = randomBytes(32);
@@ -143,6 +215,78 @@ public class CURLTests extends TestBase {
                 assertEquals(CURLE_OK, result, () -> curl_easy_strerror(result));
                 assertEquals(200, curl_easy_getinfo_long(curl, CURLINFO_RESPONSE_CODE));
                 assertEquals(header, headerCollector.getHeaders().get("X-Magic").get(0));
+                assertEquals(header, headerCollector.getFirst("x-magic"));
+                assertNull(headerCollector.getFirst("X-Missing"));
+
+                // Curl keeps its own copy of the headers on newer versions.
+                if (isCurlEasyHeaderSupported()) {
+                    curl_header stored = curl_easy_header(curl, "x-magic", 0, CURLH_HEADER, -1);
+                    assertNotNull(stored);
+                    assertEquals(header, stored.value());
+                    assertEquals(1, stored.amount());
+                }
+                assertArrayEquals(data, output.bytes());
+            }
+        } finally {
+            curl_easy_cleanup(curl);
+            curl_global_cleanup();
+        }
+    }
+
+    @Test
+    public void testCurlHeaders() throws IOException {
+        byte[] data = randomBytes(32);
+        String header = randomHex(32);
+
+        curl_global_init(CURL_GLOBAL_DEFAULT);
+        long curl = curl_easy_init();
+
+        try (TestWebServer server = new TestWebServer()) {
+            server.addHandler("/redirect", r -> {
+                NanoHTTPD.Response response = bytesResponse(REDIRECT, new byte[0]);
+                response.addHeader("Location", server.addr("/"));
+                response.addHeader("X-Redirect", "true");
+                return response;
+            });
+            server.addHandler("/", r -> {
+                NanoHTTPD.Response response = bytesResponse(OK, data);
+                response.addHeader("X-Magic", header);
+                response.addCookieHeader("a=1");
+                response.addCookieHeader("b=2");
+                return response;
+            });
+
+            curl_easy_reset(curl);
+
+            curl_easy_setopt(curl, CURLOPT_URL, server.addr("/redirect"));
+            curl_easy_setopt(curl, CURLOPT_FOLLOWLOCATION, 1);
+
+            try (MemoryCurlOutput output = MemoryCurlOutput.create();
+                 HeaderCollector headerCollector = new HeaderCollector(true)) {
+                curl_easy_setopt(curl, CURLOPT_WRITEFUNCTION, output.callback());
+                headerCollector.apply(curl);
+
+                int result = curl_easy_perform(curl);
+
+                assertEquals(CURLE_OK, result, () -> curl_easy_strerror(result));
+                assertEquals(200, curl_easy_getinfo_long(curl, CURLINFO_RESPONSE_CODE));
+                // Older curl falls back to the callback, which must behave the same.
+                assertEquals(isCurlEasyHeaderSupported(), headerCollector.usesCurlHeaders());
+                assertEquals(header, headerCollector.getFirst("x-magic"));
+                assertEquals(Arrays.asList("a=1", "b=2"), headerCollector.getValues("set-cookie"));
+                assertNull(headerCollector.getFirst("X-Missing"));
+                assertTrue(headerCollector.getValues("X-Missing").isEmpty());
+
+                // Only the headers of the final response are visible.
+                assertNull(headerCollector.getFirst("X-Redirect"));
+                List<String> names = new ArrayList<>();
+                headerCollector.forEach((name, value) -> names.add(name.toLowerCase(Locale.ROOT)));
+                assertFalse(names.contains("x-redirect"));
+                assertFalse(names.contains("location"));
+                assertTrue(names.contains("x-magic"));
+                assertEquals(2, names.stream().filter("set-cookie"::equals).count());
+                assertEquals(names.size(), headerCollector.size());
+
                 assertArrayEquals(data, output.bytes());
             }
         } finally {
@@ -188,6 +332,43 @@ public class CURLTests extends TestBase {
         }
     }
 
+    @Test
+    public void testCABundleFile() throws IOException {
+        byte[] data = randomBytes(32);
+
+        curl_global_init(CURL_GLOBAL_DEFAULT);
+        long curl = curl_easy_init();
+
+        Path certFile = Files.createTempFile("curl4j-test", ".crt");
+        try (TestWebServer server = new TestWebServer("/selfsigned.jks", "password")) {
+            server.addHandler("/", r -> bytesResponse(OK, data));
+            Files.write(certFile, server.getCertBytes("key"));
+
+            CABundle bundle = CABundle.newBundleFromPath(certFile);
+            assertEquals(certFile.toAbsolutePath(), bundle.getCAFile());
+
+            curl_easy_reset(curl);
+            curl_easy_setopt(curl, CURLOPT_CAINFO, bundle.getCAFile().toString());
+            curl_easy_setopt(curl, CURLOPT_URL, server.addr("/"));
+
+            try (MemoryCurlOutput output = MemoryCurlOutput.create()) {
+                curl_easy_setopt(curl, CURLOPT_WRITEFUNCTION, output.callback());
+
+                int result = curl_easy_perform(curl);
+
+                assertEquals(CURLE_OK, result, () -> curl_easy_strerror(result));
+                assertArrayEquals(data, output.bytes());
+            }
+
+            // The blob holds a copy of the file.
+            assertEquals(Files.size(certFile), bundle.getCABlob().getLen());
+        } finally {
+            curl_easy_cleanup(curl);
+            curl_global_cleanup();
+            Files.deleteIfExists(certFile);
+        }
+    }
+
     @Test
     public void testMimeBody() throws IOException {
         byte[] data = randomBytes(32);
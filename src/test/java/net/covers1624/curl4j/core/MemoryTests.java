@@ -109,6 +109,25 @@ public class MemoryTests {
         }
     }
 
+    @Test
+    public void testRepointDirectByteBuffer() {
+        ByteBuffer a = ByteBuffer.allocateDirect(16);
+        ByteBuffer b = ByteBuffer.allocateDirect(32);
+        a.putInt(0, 0xF0F0F0F0);
+        b.putInt(0, 0x0F0F0F0F);
+
+        ByteBuffer view = Memory.newDirectByteBuffer(Memory.getDirectByteBufferAddress(a), 16);
+        assertEquals(0xF0F0F0F0, view.getInt(0));
+        view.position(8);
+
+        view = Memory.repointDirectByteBuffer(view, Memory.getDirectByteBufferAddress(b), 32);
+        assertEquals(Memory.getDirectByteBufferAddress(b), Memory.getDirectByteBufferAddress(view));
+        assertEquals(0x0F0F0F0F, view.getInt(0));
+        assertEquals(0, view.position());
+        assertEquals(32, view.limit());
+        assertEquals(32, view.capacity());
+    }
+
     @Test
     public void testStack() {
         try (Memory.Stack stack = Memory.pushStack()) {
@@ -118,4 +137,25 @@ public class MemoryTests {
             assertEquals(buffer.getInt(0), Memory.getInt(addr));
         }
     }
+
+    @Test
+    public void testNativeArena() {
+        NativeArena arena = new NativeArena();
+        long a = arena.nmalloc(3, 1);
+        long b = arena.nmalloc(8);
+        assertEquals(0, b & 7);
+        assertTrue(b >= a + 3);
+
+        // Larger than a chunk, allocated separately.
+        long large = arena.nmalloc(1024 * 1024, 64);
+        assertEquals(0, large & 63);
+        Memory.putLong(large + 1024 * 1024 - 8, 0xF0F0F0F0F0F0F0F0L);
+        assertEquals(0xF0F0F0F0F0F0F0F0L, Memory.getLong(large + 1024 * 1024 - 8));
+
+        long str = arena.allocUtf8("Hello");
+        assertEquals("Hello", Memory.readUtf8(str));
+
+        arena.close();
+        assertThrows(IllegalStateException.class, () -> arena.nmalloc(8));
+    }
 }
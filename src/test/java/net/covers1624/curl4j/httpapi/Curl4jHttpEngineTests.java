@@ -0,0 +1,404 @@
+package net.covers1624.curl4j.httpapi;
+
+import fi.iki.elonen.NanoHTTPD;
+import net.covers1624.curl4j.tests.TestBase;
+import net.covers1624.curl4j.tests.TestWebServer;
+import net.covers1624.quack.net.httpapi.HeaderList;
+import net.covers1624.quack.net.httpapi.WebBody;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static fi.iki.elonen.NanoHTTPD.Response.Status.*;
+import static net.covers1624.curl4j.tests.TestWebServer.getBody;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by covers1624 on 18/10/26.
+ */
+public class Curl4jHttpEngineTests extends TestBase {
+
+    private static final String ETAG = "\"v1\"";
+
+    @Test
+    public void testPrewarm() throws IOException {
+        byte[] data = randomBytes(32);
+        Path file = Files.createTempFile("curl4j-test", ".bin");
+
+        try (TestWebServer server = new TestWebServer();
+             Curl4jHttpEngine engine = Curl4jHttpEngine.builder().transferStats(true).build()) {
+            server.addHandler("/", r -> r.getMethod() == NanoHTTPD.Method.HEAD ? headResponse(data.length) : bytesResponse(OK, data));
+
+            assertEquals(2, engine.prewarm(server.addr("/"), 2));
+
+            // File downloads are handed the warmed handles.
+            try (Curl4jEngineResponse response = engine.newRequest().method("GET", null).url(server.addr("/")).useFileOutput(file).execute()) {
+                assertEquals(200, response.statusCode());
+                TransferStats stats = response.transferStats();
+                assertNotNull(stats);
+                assertTrue(stats.reusedConnection());
+            }
+            assertArrayEquals(data, Files.readAllBytes(file));
+
+            // Both handles still hold their connection, nothing new to open.
+            assertEquals(0, engine.prewarm(server.addr("/"), 2));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testPrewarmReactors() throws Exception {
+        byte[] data = randomBytes(32);
+
+        // Without multiplexing, so each concurrent request gets its own connection.
+        try (TestWebServer server = new TestWebServer();
+             Curl4jHttpEngine engine = Curl4jHttpEngine.builder().reactorThreads(1).multiplex(false).transferStats(true).build()) {
+            server.addHandler("/", r -> r.getMethod() == NanoHTTPD.Method.HEAD ? headResponse(data.length) : bytesResponse(OK, data));
+
+            assertEquals(2, engine.prewarm(server.addr("/"), 2));
+
+            try (Curl4jEngineResponse response = engine.newRequest().method("GET", null).url(server.addr("/")).execute()) {
+                assertArrayEquals(data, readAll(response));
+                TransferStats stats = response.transferStats();
+                assertNotNull(stats);
+                assertTrue(stats.reusedConnection());
+            }
+            try (Curl4jEngineResponse response = engine.newRequest().method("GET", null).url(server.addr("/")).executeAsync().get(10, TimeUnit.SECONDS)) {
+                assertArrayEquals(data, readAll(response));
+                TransferStats stats = response.transferStats();
+                assertNotNull(stats);
+                assertTrue(stats.reusedConnection());
+            }
+
+            assertEquals(0, engine.prewarm(server.addr("/"), 2));
+        }
+    }
+
+    @Test
+    public void testCurlHeaders() throws IOException {
+        byte[] data = randomBytes(32);
+
+        try (TestWebServer server = new TestWebServer();
+             Curl4jHttpEngine engine = Curl4jHttpEngine.builder().curlHeaders(true).build()) {
+            server.addHandler("/redirect", r -> {
+                NanoHTTPD.Response response = bytesResponse(REDIRECT, new byte[0]);
+                response.addHeader("Location", server.addr("/"));
+                response.addHeader("X-Redirect", "true");
+                return response;
+            });
+            server.addHandler("/", r -> {
+                NanoHTTPD.Response response = bytesResponse(OK, data);
+                response.addCookieHeader("a=1");
+                response.addCookieHeader("b=2");
+                return response;
+            });
+
+            try (Curl4jEngineResponse response = engine.newRequest().method("GET", null).url(server.addr("/redirect")).execute()) {
+                assertEquals(200, response.statusCode());
+                assertArrayEquals(data, readAll(response));
+
+                HeaderList headers = response.headers();
+                assertEquals(Arrays.asList("a=1", "b=2"), headers.getValues("Set-Cookie"));
+                assertNull(headers.get("X-Redirect"));
+                assertNull(headers.get("Location"));
+            }
+        }
+    }
+
+    @Test
+    public void testSegmentedDownload() throws IOException {
+        // Large enough to be split into 2 segments.
+        byte[] data = randomBytes(5 * 512 * 1024);
+        Path file = Files.createTempFile("curl4j-test", ".bin");
+        List<String> ranges = new CopyOnWriteArrayList<>();
+
+        try (TestWebServer server = new TestWebServer();
+             Curl4jHttpEngine engine = new Curl4jHttpEngine()) {
+            server.addHandler("/", r -> {
+                if (r.getMethod() == NanoHTTPD.Method.GET) {
+                    ranges.add(String.valueOf(r.getHeaders().get("range")));
+                }
+                return rangedResponse(r, data);
+            });
+
+            try (Curl4jEngineResponse response = engine.newRequest()
+                    .method("GET", null)
+                    .url(server.addr("/"))
+                    .useFileOutput(file)
+                    .segmentedDownload(4)
+                    .execute()) {
+                assertEquals(200, response.statusCode());
+            }
+            assertArrayEquals(data, Files.readAllBytes(file));
+            assertEquals(2, ranges.size());
+            assertTrue(ranges.contains("bytes=0-" + (data.length / 2 - 1)));
+            assertTrue(ranges.contains("bytes=" + data.length / 2 + "-" + (data.length - 1)));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testSegmentedDownloadIgnoresBody() throws IOException {
+        byte[] data = randomBytes(5 * 512 * 1024);
+        byte[] upload = randomBytes(32);
+        Path file = Files.createTempFile("curl4j-test", ".bin");
+        List<String> requests = new CopyOnWriteArrayList<>();
+        AtomicReference<byte[]> received = new AtomicReference<>();
+
+        try (TestWebServer server = new TestWebServer();
+             Curl4jHttpEngine engine = new Curl4jHttpEngine()) {
+            server.addHandler("/", r -> {
+                requests.add(r.getMethod() + " " + r.getHeaders().get("range"));
+                received.set(getBody(r));
+                return rangedResponse(r, data);
+            });
+
+            try (Curl4jEngineResponse response = engine.newRequest()
+                    .method("POST", bytesBody(upload))
+                    .url(server.addr("/"))
+                    .useFileOutput(file)
+                    .segmentedDownload(4)
+                    .execute()) {
+                assertEquals(200, response.statusCode());
+            }
+            // A single request, no probe, no ranges.
+            assertEquals(Collections.singletonList("POST null"), requests);
+            assertArrayEquals(upload, received.get());
+            assertArrayEquals(data, Files.readAllBytes(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testResumableDownload() throws IOException {
+        byte[] data = randomBytes(64 * 1024);
+        int half = data.length / 2;
+        Path file = Files.createTempFile("curl4j-test", ".bin");
+        Path journal = file.resolveSibling(file.getFileName() + ".resume");
+        AtomicBoolean fail = new AtomicBoolean(true);
+        AtomicReference<String> range = new AtomicReference<>();
+
+        try (TestWebServer server = new TestWebServer();
+             Curl4jHttpEngine engine = new Curl4jHttpEngine()) {
+            server.addHandler("/", r -> {
+                range.set(r.getHeaders().get("range"));
+                if (fail.get()) return bytesResponse(INTERNAL_ERROR, "Oops".getBytes(StandardCharsets.UTF_8));
+                return rangedResponse(r, data);
+            });
+            String url = server.addr("/");
+
+            // A previous attempt got half way.
+            Files.write(file, Arrays.copyOf(data, half));
+            writeJournal(journal, url, ETAG, half);
+
+            // Errors must not touch the partial file, or the journal.
+            assertThrows(IOException.class, () -> engine.newRequest().method("GET", null).url(url).useFileOutput(file).resumable().execute());
+            assertEquals("bytes=" + half + "-", range.get());
+            assertArrayEquals(Arrays.copyOf(data, half), Files.readAllBytes(file));
+            assertTrue(Files.exists(journal));
+
+            fail.set(false);
+            try (Curl4jEngineResponse response = engine.newRequest().method("GET", null).url(url).useFileOutput(file).resumable().execute()) {
+                assertEquals(206, response.statusCode());
+            }
+            assertEquals("bytes=" + half + "-", range.get());
+            assertArrayEquals(data, Files.readAllBytes(file));
+            assertFalse(Files.exists(journal));
+
+            // The file changed on the server, If-Range no longer matches and the full file is sent.
+            Files.write(file, new byte[half]);
+            writeJournal(journal, url, "\"stale\"", half);
+            try (Curl4jEngineResponse response = engine.newRequest().method("GET", null).url(url).useFileOutput(file).resumable().execute()) {
+                assertEquals(200, response.statusCode());
+            }
+            assertArrayEquals(data, Files.readAllBytes(file));
+            assertFalse(Files.exists(journal));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(journal);
+        }
+    }
+
+    @Test
+    public void testExecuteAsync() throws Exception {
+        byte[] data = randomBytes(32);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (TestWebServer server = new TestWebServer();
+             Curl4jHttpEngine engine = new Curl4jHttpEngine()) {
+            server.addHandler("/", r -> bytesResponse(OK, data));
+            server.addHandler("/slow", r -> {
+                release.await();
+                return bytesResponse(OK, data);
+            });
+
+            CompletableFuture<Curl4jEngineResponse> future = engine.newRequest().method("GET", null).url(server.addr("/")).executeAsync();
+            try (Curl4jEngineResponse response = future.get(10, TimeUnit.SECONDS)) {
+                assertEquals(200, response.statusCode());
+                assertArrayEquals(data, readAll(response));
+            }
+
+            try {
+                CompletableFuture<Curl4jEngineResponse> slow = engine.newRequest().method("GET", null).url(server.addr("/slow")).executeAsync();
+                assertTrue(slow.cancel(true));
+                assertTrue(slow.isCancelled());
+            } finally {
+                release.countDown();
+            }
+
+            // The reactor is still usable after a cancellation.
+            try (Curl4jEngineResponse response = engine.newRequest().method("GET", null).url(server.addr("/")).executeAsync().get(10, TimeUnit.SECONDS)) {
+                assertArrayEquals(data, readAll(response));
+            }
+        }
+    }
+
+    @Test
+    public void testCloseWithOpenResponse() throws IOException {
+        byte[] data = randomBytes(32);
+
+        try (TestWebServer server = new TestWebServer()) {
+            server.addHandler("/", r -> bytesResponse(OK, data));
+
+            Curl4jHttpEngine engine = new Curl4jHttpEngine();
+            try (Curl4jEngineResponse streamed = engine.newRequest().method("GET", null).url(server.addr("/")).execute()) {
+                // The share is still used by the response's handles, it must outlive the engine.
+                engine.close();
+                assertArrayEquals(data, readAll(streamed));
+            }
+        }
+    }
+
+    @Test
+    public void testReactors() throws Exception {
+        byte[] data = randomBytes(32);
+        CountDownLatch arrived = new CountDownLatch(3);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (TestWebServer server = new TestWebServer();
+             Curl4jHttpEngine engine = Curl4jHttpEngine.builder().reactorThreads(2).build()) {
+            server.addHandler("/", r -> bytesResponse(OK, data));
+            server.addHandler("/slow", r -> {
+                arrived.countDown();
+                release.await();
+                return bytesResponse(OK, data);
+            });
+            // Sends the headers, then stalls the body.
+            server.addHandler("/stall", r -> {
+                arrived.countDown();
+                InputStream body = new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        try {
+                            release.await();
+                        } catch (InterruptedException ex) {
+                            throw new InterruptedIOException();
+                        }
+                        return -1;
+                    }
+                };
+                return NanoHTTPD.newFixedLengthResponse(OK, null, body, data.length);
+            });
+
+            try {
+                for (int i = 0; i < 4; i++) {
+                    try (Curl4jEngineResponse response = engine.newRequest().method("GET", null).url(server.addr("/")).execute()) {
+                        assertEquals(200, response.statusCode());
+                        assertArrayEquals(data, readAll(response));
+                    }
+                }
+
+                // Close the engine with transfers in flight, everything must fail instead of hanging.
+                CompletableFuture<Curl4jEngineResponse> slow1 = engine.newRequest().method("GET", null).url(server.addr("/slow")).executeAsync();
+                CompletableFuture<Curl4jEngineResponse> slow2 = engine.newRequest().method("GET", null).url(server.addr("/slow")).executeAsync();
+                CompletableFuture<byte[]> stalled = CompletableFuture.supplyAsync(() -> {
+                    try (Curl4jEngineResponse response = engine.newRequest().method("GET", null).url(server.addr("/stall")).execute()) {
+                        return readAll(response);
+                    } catch (IOException ex) {
+                        throw new CompletionException(ex);
+                    }
+                });
+                assertTrue(arrived.await(10, TimeUnit.SECONDS));
+
+                engine.close();
+                assertThrows(ExecutionException.class, () -> slow1.get(10, TimeUnit.SECONDS));
+                assertThrows(ExecutionException.class, () -> slow2.get(10, TimeUnit.SECONDS));
+                ExecutionException ex = assertThrows(ExecutionException.class, () -> stalled.get(10, TimeUnit.SECONDS));
+                assertTrue(ex.getCause() instanceof IOException);
+            } finally {
+                release.countDown();
+            }
+        }
+    }
+
+    // Serves data, honouring a single Range header, guarded by If-Range.
+    private static NanoHTTPD.Response rangedResponse(NanoHTTPD.IHTTPSession r, byte[] data) {
+        String range = r.getHeaders().get("range");
+        String ifRange = r.getHeaders().get("if-range");
+        NanoHTTPD.Response response;
+        if (r.getMethod() == NanoHTTPD.Method.HEAD) {
+            response = headResponse(data.length);
+        } else if (range == null || ifRange != null && !ifRange.equals(ETAG)) {
+            response = bytesResponse(OK, data);
+        } else {
+            String[] split = range.substring("bytes=".length()).split("-", -1);
+            int start = Integer.parseInt(split[0]);
+            int end = split[1].isEmpty() ? data.length - 1 : Integer.parseInt(split[1]);
+            response = bytesResponse(PARTIAL_CONTENT, Arrays.copyOfRange(data, start, end + 1));
+            response.addHeader("Content-Range", "bytes " + start + "-" + end + "/" + data.length);
+        }
+        response.addHeader("Accept-Ranges", "bytes");
+        response.addHeader("ETag", ETAG);
+        return response;
+    }
+
+    // Never send a body for HEAD, but still report the length.
+    private static NanoHTTPD.Response headResponse(long length) {
+        NanoHTTPD.Response response = bytesResponse(OK, new byte[0]);
+        response.addHeader("Content-Length", String.valueOf(length));
+        return response;
+    }
+
+    private static void writeJournal(Path journal, String url, String validator, long offset) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("url", url);
+        props.setProperty("validator", validator);
+        props.setProperty("offset", String.valueOf(offset));
+        try (OutputStream os = Files.newOutputStream(journal)) {
+            props.store(os, null);
+        }
+    }
+
+    private static WebBody bytesBody(byte[] bytes) {
+        // @formatter:off
+        return new WebBody() {
+            @Override public InputStream open() { return new ByteArrayInputStream(bytes); }
+            @Override public boolean multiOpenAllowed() { return true; }
+            @Override public long length() { return bytes.length; }
+            @Override public String contentType() { return "application/octet-stream"; }
+        };
+        // @formatter:on
+    }
+
+    static byte[] readAll(Curl4jEngineResponse response) throws IOException {
+        try (InputStream is = response.body().open()) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            byte[] buf = new byte[1024];
+            int len;
+            while ((len = is.read(buf)) != -1) {
+                bos.write(buf, 0, len);
+            }
+            return bos.toByteArray();
+        }
+    }
+}